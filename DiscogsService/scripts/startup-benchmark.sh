@@ -0,0 +1,59 @@
+#!/usr/bin/env bash
+# Starts the AOT-processed jar with its CDS archive several times and measures how long each run takes
+# until the readiness probe answers. Fails when the median is over the budget.
+#
+# usage: startup-benchmark.sh <jar> <cds-archive> <runs> <budget-ms> [port]
+set -euo pipefail
+
+JAR="$1"
+CDS_ARCHIVE="$2"
+RUNS="$3"
+BUDGET_MS="$4"
+PORT="${5:-18080}"
+READINESS_URL="http://localhost:${PORT}/actuator/health/readiness"
+TIMEOUT_MS=30000
+
+now_ms() {
+  echo $(( $(date +%s%N) / 1000000 ))
+}
+
+samples=()
+for run in $(seq 1 "$RUNS"); do
+  start=$(now_ms)
+  java -XX:SharedArchiveFile="$CDS_ARCHIVE" -Xshare:auto \
+       -Dspring.aot.enabled=true \
+       -Dspring.profiles.active=fast-startup \
+       -Dserver.port="$PORT" \
+       -jar "$JAR" > /dev/null 2>&1 &
+  pid=$!
+
+  elapsed=-1
+  while kill -0 "$pid" 2> /dev/null; do
+    if curl -sf -o /dev/null "$READINESS_URL"; then
+      elapsed=$(( $(now_ms) - start ))
+      break
+    fi
+    if (( $(now_ms) - start > TIMEOUT_MS )); then
+      break
+    fi
+    sleep 0.02
+  done
+
+  kill "$pid" 2> /dev/null || true
+  wait "$pid" 2> /dev/null || true
+
+  if (( elapsed < 0 )); then
+    echo "Run ${run}: service did not become ready within ${TIMEOUT_MS} ms" >&2
+    exit 1
+  fi
+  echo "Run ${run}: ready in ${elapsed} ms"
+  samples+=("$elapsed")
+done
+
+median=$(printf '%s\n' "${samples[@]}" | sort -n | awk '{ values[NR] = $1 } END { print values[int((NR + 1) / 2)] }')
+echo "Median time to ready: ${median} ms (budget ${BUDGET_MS} ms)"
+
+if (( median > BUDGET_MS )); then
+  echo "Startup budget exceeded" >&2
+  exit 1
+fi
@@ -13,6 +13,7 @@ import org.springframework.context.ConfigurableApplicationContext;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.ComponentScan;
 import org.springframework.context.annotation.EnableAspectJAutoProxy;
+import reactor.core.publisher.Hooks;
 
 @SpringBootApplication
 @EnableAspectJAutoProxy
@@ -38,6 +39,8 @@ public class DiscogsServiceApplication {
     }
 
     public static void main(String[] args) {
+        //carries the correlation id from the Reactor context into the MDC of every thread serving the request
+        Hooks.enableAutomaticContextPropagation();
         ConfigurableApplicationContext ctx = SpringApplication.run(DiscogsServiceApplication.class, args);
 
         String mysqlUri = ctx.getEnvironment().getProperty("spring.datasource.url");
@@ -3,6 +3,7 @@ package com.challenge.aop;
 import org.aspectj.lang.JoinPoint;
 import org.aspectj.lang.annotation.Aspect;
 import org.aspectj.lang.annotation.Before;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Component;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -13,6 +14,7 @@ import java.util.Arrays;
 
 @Aspect
 @Component
+@ConditionalOnProperty(name = "discogs.logging.method-entry", havingValue = "true", matchIfMissing = true)
 public class ServiceLoggingAspect {
 
     private static final Logger logger = LoggerFactory.getLogger(ServiceLoggingAspect.class);
@@ -21,6 +23,10 @@ public class ServiceLoggingAspect {
 
     @Before("execution(* com.challenge..*(..))")
     public void logMethodEntry(JoinPoint joinPoint) {
+        //every call in the application passes here, the arguments are only formatted when they are logged
+        if (!logger.isDebugEnabled()) {
+            return;
+        }
         String methodName = joinPoint.getSignature().toShortString();
         String timestamp = LocalDateTime.now().format(TIMESTAMP_FORMATTER);
 
@@ -30,6 +36,6 @@ public class ServiceLoggingAspect {
                 ? Arrays.toString(args)
                 : "No arguments";
 
-        logger.info("[{}] Entering method: {} with arguments: {}", timestamp, methodName, argsString);
+        logger.debug("[{}] Entering method: {} with arguments: {}", timestamp, methodName, argsString);
     }
 }
\ No newline at end of file
@@ -0,0 +1,135 @@
+package com.challenge.cache;
+
+import com.challenge.api.core.ArtistComparison;
+import com.challenge.events.ArtistStoredEvent;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Caches artist comparisons at two levels: one entry per artist, reused by every set it appears in, and the
+ * assembled result per sorted, deduplicated set of Discogs ids. Storing an artist evicts its own entry and,
+ * through a reverse index, exactly the sets that contain it.
+ */
+@Component
+public class ArtistComparisonCache {
+
+    private final Cache<String, ArtistComparison> artists;
+    private final Cache<List<String>, List<ArtistComparison>> sets;
+    private final Map<String, Set<List<String>>> setsByArtist = new ConcurrentHashMap<>();
+
+    //bumped on every invalidation, so results computed from data read before it are not cached
+    private final AtomicLong version = new AtomicLong();
+
+    //puts check the version and store under the read lock and invalidations run under the write lock, so a put
+    //that saw the old version has finished before the invalidation removes what it stored
+    private final ReadWriteLock invalidationLock = new ReentrantReadWriteLock();
+
+    public ArtistComparisonCache(@Value("${discogs.compare.cache.max-artists:10000}") long maxArtists,
+                                 @Value("${discogs.compare.cache.max-sets:10000}") long maxSets,
+                                 @Value("${discogs.compare.cache.ttl:PT10M}") Duration ttl) {
+        //invalidations only come from artists stored on this instance, the TTL bounds how long another
+        //instance's re-ingestion can go unnoticed
+        this.artists = Caffeine.newBuilder()
+                .maximumSize(maxArtists)
+                .expireAfterWrite(ttl)
+                .build();
+        //the eviction listener runs synchronously under the entry's lock, like the compute in putSet, so an
+        //eviction cannot drop the reverse index of a set that was put again in the meantime
+        this.sets = Caffeine.newBuilder()
+                .maximumSize(maxSets)
+                .expireAfterWrite(ttl)
+                .evictionListener((List<String> key, List<ArtistComparison> value, RemovalCause cause) -> {
+                    if (key != null) {
+                        removeFromIndex(key);
+                    }
+                })
+                .build();
+    }
+
+    public static List<String> keyOf(Collection<String> discogsIds) {
+        return discogsIds.stream().distinct().sorted().toList();
+    }
+
+    public long currentVersion() {
+        return version.get();
+    }
+
+    public List<ArtistComparison> getSet(List<String> key) {
+        return sets.getIfPresent(key);
+    }
+
+    /**
+     * Returns the cached entries of the given artists; artists without an entry are left out.
+     */
+    public Map<String, ArtistComparison> getArtists(List<String> discogsIds) {
+        return artists.getAllPresent(discogsIds);
+    }
+
+    public void putArtist(String discogsId, ArtistComparison comparison, long readVersion) {
+        invalidationLock.readLock().lock();
+        try {
+            if (version.get() == readVersion) {
+                artists.put(discogsId, comparison);
+            }
+        } finally {
+            invalidationLock.readLock().unlock();
+        }
+    }
+
+    public void putSet(List<String> key, List<ArtistComparison> result, long readVersion) {
+        invalidationLock.readLock().lock();
+        try {
+            if (version.get() != readVersion) {
+                return;
+            }
+            sets.asMap().compute(key, (setKey, previous) -> {
+                setKey.forEach(discogsId -> setsByArtist.computeIfAbsent(discogsId,
+                        id -> ConcurrentHashMap.newKeySet()).add(setKey));
+                return result;
+            });
+        } finally {
+            invalidationLock.readLock().unlock();
+        }
+    }
+
+    @EventListener
+    public void onArtistStored(ArtistStoredEvent event) {
+        invalidate(event.getDiscogsId());
+    }
+
+    public void invalidate(String discogsId) {
+        invalidationLock.writeLock().lock();
+        try {
+            version.incrementAndGet();
+            artists.invalidate(discogsId);
+            Set<List<String>> keys = setsByArtist.remove(discogsId);
+            if (keys != null) {
+                for (List<String> key : keys) {
+                    sets.invalidate(key);
+                    //the other artists of the set no longer point to it either
+                    removeFromIndex(key);
+                }
+            }
+        } finally {
+            invalidationLock.writeLock().unlock();
+        }
+    }
+
+    private void removeFromIndex(List<String> key) {
+        key.forEach(discogsId -> setsByArtist.computeIfPresent(discogsId, (id, keys) -> {
+            keys.remove(key);
+            return keys.isEmpty() ? null : keys;
+        }));
+    }
+}
@@ -0,0 +1,77 @@
+package com.challenge.cache;
+
+import com.challenge.api.core.Artist;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Short-lived cache of Discogs artist search pages, keyed by the case-insensitive query and the page window.
+ * Entries remember whether they were prefetched, so the hit counters tell whether prefetching pays off.
+ */
+@Component
+public class SearchResultCache {
+
+    private final Cache<String, Entry> pages;
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter prefetchedHits;
+
+    public SearchResultCache(@Value("${discogs.search.cache.ttl:PT5M}") Duration ttl,
+                             @Value("${discogs.search.cache.max-size:1000}") long maxSize,
+                             MeterRegistry meterRegistry) {
+        this.pages = Caffeine.newBuilder()
+                .expireAfterWrite(ttl)
+                .maximumSize(maxSize)
+                .build();
+        this.hits = Counter.builder("discogs.search.cache.requests").tag("result", "hit").register(meterRegistry);
+        this.misses = Counter.builder("discogs.search.cache.requests").tag("result", "miss").register(meterRegistry);
+        this.prefetchedHits = Counter.builder("discogs.search.prefetch.hits").register(meterRegistry);
+    }
+
+    /**
+     * Returns the cached page, or null, and counts the lookup as a hit or a miss.
+     */
+    public List<Artist> get(String artistName, int page, int perPage) {
+        Entry entry = pages.getIfPresent(key(artistName, page, perPage));
+        if (entry == null) {
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        if (entry.prefetched) {
+            prefetchedHits.increment();
+        }
+        return entry.artists;
+    }
+
+    public boolean contains(String artistName, int page, int perPage) {
+        return pages.getIfPresent(key(artistName, page, perPage)) != null;
+    }
+
+    public void put(String artistName, int page, int perPage, List<Artist> artists, boolean prefetched) {
+        pages.put(key(artistName, page, perPage), new Entry(artists, prefetched));
+    }
+
+    private static String key(String artistName, int page, int perPage) {
+        return artistName.trim().toLowerCase(Locale.ROOT) + '|' + page + '|' + perPage;
+    }
+
+    private static final class Entry {
+        private final List<Artist> artists;
+        private final boolean prefetched;
+
+        private Entry(List<Artist> artists, boolean prefetched) {
+            this.artists = artists;
+            this.prefetched = prefetched;
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.challenge.dtos;
+
+public class AlbumRowDto {
+    private Long id;
+    private String title;
+    private Integer year;
+    private String format;
+    private String label;
+
+    public AlbumRowDto(Long id, String title, Integer year, String format, String label) {
+        this.id = id;
+        this.title = title;
+        this.year = year;
+        this.format = format;
+        this.label = label;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public void setTitle(String title) {
+        this.title = title;
+    }
+
+    public Integer getYear() {
+        return year;
+    }
+
+    public void setYear(Integer year) {
+        this.year = year;
+    }
+
+    public String getFormat() {
+        return format;
+    }
+
+    public void setFormat(String format) {
+        this.format = format;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    public void setLabel(String label) {
+        this.label = label;
+    }
+}
@@ -0,0 +1,37 @@
+package com.challenge.dtos;
+
+public class ArtistReleaseCountDto {
+    private String discogsId;
+    private String name;
+    private Long releaseCount;
+
+    public ArtistReleaseCountDto(String discogsId, String name, Long releaseCount) {
+        this.discogsId = discogsId;
+        this.name = name;
+        this.releaseCount = releaseCount;
+    }
+
+    public String getDiscogsId() {
+        return discogsId;
+    }
+
+    public void setDiscogsId(String discogsId) {
+        this.discogsId = discogsId;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public Long getReleaseCount() {
+        return releaseCount;
+    }
+
+    public void setReleaseCount(Long releaseCount) {
+        this.releaseCount = releaseCount;
+    }
+}
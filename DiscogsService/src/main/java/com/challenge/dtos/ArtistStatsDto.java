@@ -0,0 +1,57 @@
+package com.challenge.dtos;
+
+public class ArtistStatsDto {
+    private String discogsId;
+    private String name;
+    private Long releaseCount;
+    private Integer firstYear;
+    private Integer lastYear;
+
+    public ArtistStatsDto(String discogsId, String name, Long releaseCount, Integer firstYear, Integer lastYear) {
+        this.discogsId = discogsId;
+        this.name = name;
+        this.releaseCount = releaseCount;
+        this.firstYear = firstYear;
+        this.lastYear = lastYear;
+    }
+
+    public String getDiscogsId() {
+        return discogsId;
+    }
+
+    public void setDiscogsId(String discogsId) {
+        this.discogsId = discogsId;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public Long getReleaseCount() {
+        return releaseCount;
+    }
+
+    public void setReleaseCount(Long releaseCount) {
+        this.releaseCount = releaseCount;
+    }
+
+    public Integer getFirstYear() {
+        return firstYear;
+    }
+
+    public void setFirstYear(Integer firstYear) {
+        this.firstYear = firstYear;
+    }
+
+    public Integer getLastYear() {
+        return lastYear;
+    }
+
+    public void setLastYear(Integer lastYear) {
+        this.lastYear = lastYear;
+    }
+}
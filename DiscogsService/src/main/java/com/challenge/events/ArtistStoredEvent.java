@@ -0,0 +1,41 @@
+package com.challenge.events;
+
+/**
+ * Published after an artist and its discography have been written to the database,
+ * so in-memory structures derived from the stored data can update incrementally.
+ */
+public class ArtistStoredEvent {
+    private final Long artistDbId;
+    private final String discogsId;
+    private final String name;
+    private final long releaseCount;
+    private final int activeYears;
+
+    public ArtistStoredEvent(Long artistDbId, String discogsId, String name, long releaseCount, int activeYears) {
+        this.artistDbId = artistDbId;
+        this.discogsId = discogsId;
+        this.name = name;
+        this.releaseCount = releaseCount;
+        this.activeYears = activeYears;
+    }
+
+    public Long getArtistDbId() {
+        return artistDbId;
+    }
+
+    public String getDiscogsId() {
+        return discogsId;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long getReleaseCount() {
+        return releaseCount;
+    }
+
+    public int getActiveYears() {
+        return activeYears;
+    }
+}
@@ -1,9 +1,11 @@
 package com.challenge.helper;
 
+import com.challenge.api.core.Artist;
 import com.challenge.dtos.AlbumBasicDto;
 import com.challenge.dtos.ArtistWithAlbumsDTO;
 import com.challenge.model.DiscogsAlbumResponse;
 import com.challenge.model.DiscogsArtistResponse;
+import com.challenge.model.DiscogsSearchArtistResponse;
 import com.challenge.persistence.AlbumEntity;
 import com.challenge.persistence.ArtistEntity;
 import org.springframework.data.domain.Page;
@@ -13,6 +15,7 @@ import org.springframework.stereotype.Service;
 
 import java.util.Comparator;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Service
 public class HelperMethods {
@@ -30,15 +33,14 @@ public class HelperMethods {
 
     public static Page<AlbumEntity> buildAlbumPage(boolean sorted, int page, int perPage, List<AlbumEntity> albumEntities, Pageable pageable) {
         Page<AlbumEntity> albumPage;
+        //albums written through the bulk upsert carry no id, their list order is the insertion order
+        Stream<AlbumEntity> albums = sorted
+                ? albumEntities.stream().sorted(Comparator.comparing(
+                        AlbumEntity::getYear,
+                        Comparator.nullsLast(Comparator.naturalOrder())))
+                : albumEntities.stream();
         albumPage = new PageImpl<>(
-                albumEntities.stream()
-                        .sorted(sorted
-                                        ? Comparator.comparing(
-                                        AlbumEntity::getYear,
-                                        Comparator.nullsLast(Comparator.naturalOrder())
-                                )
-                                        : Comparator.comparing(AlbumEntity::getId)
-                        )
+                albums
                         .skip((long) (page - 1) * perPage)
                         .limit(perPage)
                         .toList(),
@@ -63,6 +65,21 @@ public class HelperMethods {
                 .toList();
     }
 
+    public static List<Artist> toArtists(DiscogsSearchArtistResponse response) {
+        if (response == null || response.getResults() == null) {
+            return List.of();
+        }
+
+        return response.getResults().stream()
+                .map(result -> {
+                    Artist artist = new Artist();
+                    artist.setDiscogsId(result.getId());
+                    artist.setName(result.getName());
+                    return artist;
+                })
+                .toList();
+    }
+
     public static ArtistEntity buildArtistEntity(DiscogsArtistResponse.Artist artistResponse) {
         return new ArtistEntity(
                 artistResponse.getDiscogsId(),
@@ -79,6 +96,13 @@ public class HelperMethods {
                 .orElse(0);
     }
 
+    /**
+     * Years from the first to the last release, both included, or 0 when either year is unknown.
+     */
+    public static int getActiveYears(int firstYear, int lastYear) {
+        return (firstYear > 0 && lastYear > 0) ? lastYear - firstYear + 1 : 0;
+    }
+
     public static int getFirstYear(List<AlbumBasicDto> albums) {
         return albums.stream()
                 .filter(album -> album.getYear() != null)
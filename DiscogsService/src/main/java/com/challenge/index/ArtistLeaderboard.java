@@ -0,0 +1,230 @@
+package com.challenge.index;
+
+import com.challenge.api.core.ArtistRanking;
+import com.challenge.dtos.ArtistStatsDto;
+import com.challenge.events.ArtistStoredEvent;
+import com.challenge.helper.HelperMethods;
+import com.challenge.persistence.ArtistRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory ranking of the stored artists by number of releases and by active years. Each ranking keeps a
+ * bounded candidate set of its head, capacity plus as much slack again, updated as artists are stored. Artists
+ * that drop out of the candidates use up the slack; once fewer than capacity are left, the head is loaded again
+ * with a LIMIT query. Loads run outside the lock, and artists stored while one runs are applied on top of it.
+ */
+@Component
+public class ArtistLeaderboard {
+
+    private static final Logger logger = LoggerFactory.getLogger(ArtistLeaderboard.class);
+
+    public enum Metric {
+        RELEASES(Comparator.comparingLong((Entry entry) -> entry.releaseCount).reversed()
+                .thenComparing(Comparator.comparingInt((Entry entry) -> entry.activeYears).reversed())
+                .thenComparing(entry -> entry.discogsId)),
+        ACTIVE_YEARS(Comparator.comparingInt((Entry entry) -> entry.activeYears).reversed()
+                .thenComparing(Comparator.comparingLong((Entry entry) -> entry.releaseCount).reversed())
+                .thenComparing(entry -> entry.discogsId));
+
+        private final Comparator<Entry> order;
+
+        Metric(Comparator<Entry> order) {
+            this.order = order;
+        }
+
+        public static Metric fromParameter(String by) {
+            if ("releases".equalsIgnoreCase(by)) {
+                return RELEASES;
+            }
+            if ("activeYears".equalsIgnoreCase(by)) {
+                return ACTIVE_YEARS;
+            }
+            throw new IllegalArgumentException("Ranking must be one of: releases, activeYears");
+        }
+    }
+
+    private final ArtistRepository artistRepository;
+    private final int capacity;
+    private final int candidateLimit;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Metric, Ranking> rankings = new EnumMap<>(Metric.class);
+
+    public ArtistLeaderboard(ArtistRepository artistRepository,
+                             @Value("${discogs.leaderboard.capacity:100}") int capacity) {
+        this.artistRepository = artistRepository;
+        this.capacity = capacity;
+        this.candidateLimit = 2 * capacity;
+        for (Metric metric : Metric.values()) {
+            rankings.put(metric, new Ranking(metric.order));
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        for (Metric metric : Metric.values()) {
+            reload(metric);
+        }
+    }
+
+    @EventListener
+    public void onArtistStored(ArtistStoredEvent event) {
+        put(event.getDiscogsId(), event.getName(), event.getReleaseCount(), event.getActiveYears());
+    }
+
+    public void put(String discogsId, String name, long releaseCount, int activeYears) {
+        if (discogsId == null) {
+            return;
+        }
+        Entry entry = new Entry(discogsId, name, releaseCount, activeYears);
+
+        List<Metric> underflowing = new ArrayList<>(0);
+        lock.writeLock().lock();
+        try {
+            for (Metric metric : Metric.values()) {
+                Ranking ranking = rankings.get(metric);
+                if (ranking.storedDuringLoad != null) {
+                    ranking.storedDuringLoad.add(entry);
+                }
+                apply(ranking, entry);
+                if (!ranking.complete && ranking.candidates.size() < capacity && ranking.storedDuringLoad == null) {
+                    underflowing.add(metric);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        underflowing.forEach(this::reload);
+    }
+
+    public List<ArtistRanking> top(Metric metric, int limit) {
+        if (limit < 1 || limit > capacity) {
+            throw new IllegalArgumentException("Limit must be between 1 and " + capacity);
+        }
+
+        lock.readLock().lock();
+        try {
+            return rankings.get(metric).candidates.stream()
+                    .limit(limit)
+                    .map(entry -> new ArtistRanking(entry.discogsId, entry.name, entry.releaseCount, entry.activeYears))
+                    .toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    //one load per ranking at a time; a caller that finds one running leaves it to that load
+    private void reload(Metric metric) {
+        Ranking ranking = rankings.get(metric);
+        lock.writeLock().lock();
+        try {
+            if (ranking.storedDuringLoad != null) {
+                return;
+            }
+            ranking.storedDuringLoad = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        List<ArtistStatsDto> artists = null;
+        try {
+            artists = findTopArtistStats(metric);
+        } catch (DataAccessException ex) {
+            logger.warn("Could not load the {} artist leaderboard: {}", metric, ex.getMessage());
+        } finally {
+            lock.writeLock().lock();
+            try {
+                if (artists != null) {
+                    ranking.candidates.clear();
+                    ranking.byDiscogsId.clear();
+                    for (ArtistStatsDto artist : artists) {
+                        add(ranking, toEntry(artist));
+                    }
+                    ranking.complete = artists.size() < candidateLimit;
+                    ranking.storedDuringLoad.forEach(entry -> apply(ranking, entry));
+                }
+                ranking.storedDuringLoad = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+        if (artists != null) {
+            logger.info("Artist leaderboard by {} loaded with {} candidates", metric, artists.size());
+        }
+    }
+
+    private List<ArtistStatsDto> findTopArtistStats(Metric metric) {
+        PageRequest head = PageRequest.of(0, candidateLimit);
+        return metric == Metric.RELEASES
+                ? artistRepository.findTopArtistStatsByReleases(head)
+                : artistRepository.findTopArtistStatsByActiveYears(head);
+    }
+
+    //called with the write lock held
+    private void apply(Ranking ranking, Entry entry) {
+        Entry previous = ranking.byDiscogsId.remove(entry.discogsId);
+        if (previous != null) {
+            ranking.candidates.remove(previous);
+        }
+        //below the last candidate of an incomplete set, stored artists that were not loaded may rank higher
+        if (ranking.complete || (!ranking.candidates.isEmpty()
+                && ranking.candidates.comparator().compare(entry, ranking.candidates.last()) < 0)) {
+            add(ranking, entry);
+        }
+    }
+
+    private void add(Ranking ranking, Entry entry) {
+        ranking.candidates.add(entry);
+        ranking.byDiscogsId.put(entry.discogsId, entry);
+        if (ranking.candidates.size() > candidateLimit) {
+            ranking.byDiscogsId.remove(ranking.candidates.pollLast().discogsId);
+            ranking.complete = false;
+        }
+    }
+
+    private static Entry toEntry(ArtistStatsDto artist) {
+        int firstYear = artist.getFirstYear() != null ? artist.getFirstYear() : 0;
+        int lastYear = artist.getLastYear() != null ? artist.getLastYear() : 0;
+        return new Entry(artist.getDiscogsId(), artist.getName(),
+                artist.getReleaseCount() != null ? artist.getReleaseCount() : 0,
+                HelperMethods.getActiveYears(firstYear, lastYear));
+    }
+
+    private static final class Ranking {
+        private final TreeSet<Entry> candidates;
+        private final Map<String, Entry> byDiscogsId = new HashMap<>();
+        //true when the candidates are every stored artist, so none can be missing below the last one
+        private boolean complete;
+        //non-null while a load runs, collecting the artists stored meanwhile
+        private List<Entry> storedDuringLoad;
+
+        private Ranking(Comparator<Entry> order) {
+            this.candidates = new TreeSet<>(order);
+        }
+    }
+
+    private static final class Entry {
+        private final String discogsId;
+        private final String name;
+        private final long releaseCount;
+        private final int activeYears;
+
+        private Entry(String discogsId, String name, long releaseCount, int activeYears) {
+            this.discogsId = discogsId;
+            this.name = name;
+            this.releaseCount = releaseCount;
+            this.activeYears = activeYears;
+        }
+    }
+}
@@ -0,0 +1,301 @@
+package com.challenge.index;
+
+import com.challenge.api.core.ArtistSuggestion;
+import com.challenge.dtos.ArtistReleaseCountDto;
+import com.challenge.events.ArtistStoredEvent;
+import com.challenge.persistence.ArtistRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Component;
+
+import java.text.Normalizer;
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+/**
+ * In-memory prefix trie over the normalized names of the stored artists.
+ * Every node keeps its own top-k suggestions ranked by release count, so a lookup only walks
+ * the prefix and copies at most k entries. Depth is capped; the deepest nodes keep all
+ * their entries so longer prefixes can still be filtered exactly. When an artist is removed or
+ * moves down the ranking, the top-k nodes on its path are refilled bottom-up from their children
+ * and the names ending at them, so candidates that were cut off earlier come back.
+ * Lookups through a top-k node return at most k suggestions, k defaults to the API's largest limit.
+ */
+@Component
+public class ArtistSuggestionIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(ArtistSuggestionIndex.class);
+
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final Pattern DISAMBIGUATION_SUFFIX = Pattern.compile("\\s*\\(\\d+\\)$");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private static final Comparator<Entry> BY_RELEASES = Comparator
+            .comparingLong((Entry entry) -> entry.releaseCount).reversed()
+            .thenComparing(entry -> entry.normalizedName);
+
+    private final ArtistRepository artistRepository;
+    private final int topK;
+    private final int maxDepth;
+    private final int maxEntries;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, Entry> entriesByDiscogsId = new HashMap<>();
+    private Node root = new Node();
+
+    public ArtistSuggestionIndex(ArtistRepository artistRepository,
+                                 @Value("${discogs.suggest.top-k:50}") int topK,
+                                 @Value("${discogs.suggest.max-depth:16}") int maxDepth,
+                                 @Value("${discogs.suggest.max-entries:500000}") int maxEntries) {
+        this.artistRepository = artistRepository;
+        this.topK = topK;
+        this.maxDepth = maxDepth;
+        this.maxEntries = maxEntries;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        List<ArtistReleaseCountDto> artists;
+        try {
+            artists = artistRepository.findArtistReleaseCounts();
+        } catch (DataAccessException ex) {
+            logger.warn("Could not build artist suggestion index: {}", ex.getMessage());
+            return;
+        }
+
+        Node newRoot = new Node();
+        Map<String, Entry> newEntries = new HashMap<>();
+        for (ArtistReleaseCountDto artist : artists) {
+            if (newEntries.size() >= maxEntries) {
+                logger.warn("Artist suggestion index is full ({} entries), remaining artists are not indexed", maxEntries);
+                break;
+            }
+            Entry entry = newEntry(artist.getDiscogsId(), artist.getName(),
+                    artist.getReleaseCount() != null ? artist.getReleaseCount() : 0);
+            if (entry != null) {
+                newEntries.put(entry.discogsId, entry);
+                insert(newRoot, entry);
+            }
+        }
+
+        lock.writeLock().lock();
+        try {
+            root = newRoot;
+            entriesByDiscogsId.clear();
+            entriesByDiscogsId.putAll(newEntries);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        logger.info("Artist suggestion index built with {} artists", newEntries.size());
+    }
+
+    @EventListener
+    public void onArtistStored(ArtistStoredEvent event) {
+        put(event.getDiscogsId(), event.getName(), event.getReleaseCount());
+    }
+
+    public void put(String discogsId, String name, long releaseCount) {
+        Entry entry = newEntry(discogsId, name, releaseCount);
+        if (entry == null) {
+            return;
+        }
+
+        lock.writeLock().lock();
+        try {
+            Entry previous = entriesByDiscogsId.get(discogsId);
+            if (previous == null && entriesByDiscogsId.size() >= maxEntries) {
+                return;
+            }
+            if (previous != null) {
+                remove(root, previous);
+            }
+            entriesByDiscogsId.put(discogsId, entry);
+            insert(root, entry);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public List<ArtistSuggestion> suggest(String prefix, int limit) {
+        String normalizedPrefix = normalize(prefix);
+        if (normalizedPrefix.isEmpty() || limit < 1) {
+            return List.of();
+        }
+
+        List<Entry> candidates;
+        lock.readLock().lock();
+        try {
+            Node node = root;
+            int depth = Math.min(normalizedPrefix.length(), maxDepth);
+            for (int i = 0; i < depth && node != null; i++) {
+                node = node.child(normalizedPrefix.charAt(i));
+            }
+            if (node == null) {
+                return List.of();
+            }
+            candidates = new ArrayList<>(node.entries);
+            //a top-k node only knows its best k entries
+            if (depth < maxDepth) {
+                limit = Math.min(limit, topK);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        return candidates.stream()
+                .filter(entry -> entry.normalizedName.startsWith(normalizedPrefix))
+                .sorted(BY_RELEASES)
+                .limit(limit)
+                .map(entry -> new ArtistSuggestion(entry.discogsId, entry.name, entry.releaseCount))
+                .toList();
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return entriesByDiscogsId.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    static String normalize(String name) {
+        if (name == null) {
+            return "";
+        }
+        String withoutDiacritics = DIACRITICS.matcher(Normalizer.normalize(name, Normalizer.Form.NFD)).replaceAll("");
+        String withoutSuffix = DISAMBIGUATION_SUFFIX.matcher(withoutDiacritics.trim()).replaceAll("");
+        return WHITESPACE.matcher(withoutSuffix.toLowerCase(Locale.ROOT)).replaceAll(" ").trim();
+    }
+
+    private Entry newEntry(String discogsId, String name, long releaseCount) {
+        String normalizedName = normalize(name);
+        if (discogsId == null || normalizedName.isEmpty()) {
+            return null;
+        }
+        return new Entry(discogsId, name, normalizedName, releaseCount);
+    }
+
+    private void insert(Node root, Entry entry) {
+        Node node = root;
+        int depth = Math.min(entry.normalizedName.length(), maxDepth);
+        for (int i = 0; i < depth; i++) {
+            node = node.childOrCreate(entry.normalizedName.charAt(i));
+            node.offer(entry, i + 1 == maxDepth ? Integer.MAX_VALUE : topK);
+        }
+        if (depth < maxDepth) {
+            node.addEnding(entry);
+        }
+    }
+
+    private void remove(Node root, Entry entry) {
+        int depth = Math.min(entry.normalizedName.length(), maxDepth);
+        Node[] path = new Node[depth];
+        Node node = root;
+        for (int i = 0; i < depth && node != null; i++) {
+            node = node.child(entry.normalizedName.charAt(i));
+            path[i] = node;
+        }
+        if (node != null && depth < maxDepth) {
+            node.removeEnding(entry);
+        }
+
+        //deepest first, so every top-k node is refilled from children that are already correct
+        for (int i = depth - 1; i >= 0; i--) {
+            if (path[i] != null && path[i].entries.remove(entry) && i + 1 < maxDepth) {
+                refill(path[i]);
+            }
+        }
+    }
+
+    //every entry below a node either ends at it or sits in exactly one child, whose top-k is complete
+    private void refill(Node node) {
+        List<Entry> candidates = new ArrayList<>(node.ending);
+        for (Node child : node.children) {
+            candidates.addAll(child.entries);
+        }
+        candidates.sort(BY_RELEASES);
+        node.entries.clear();
+        node.entries.addAll(candidates.subList(0, Math.min(topK, candidates.size())));
+    }
+
+    private static final class Entry {
+        private final String discogsId;
+        private final String name;
+        private final String normalizedName;
+        private final long releaseCount;
+
+        private Entry(String discogsId, String name, String normalizedName, long releaseCount) {
+            this.discogsId = discogsId;
+            this.name = name;
+            this.normalizedName = normalizedName;
+            this.releaseCount = releaseCount;
+        }
+    }
+
+    private static final class Node {
+        private static final char[] NO_KEYS = new char[0];
+        private static final Node[] NO_CHILDREN = new Node[0];
+
+        private char[] keys = NO_KEYS;
+        private Node[] children = NO_CHILDREN;
+        private final List<Entry> entries = new ArrayList<>(1);
+        //entries whose whole normalized name is this node's prefix, only kept above the depth cap
+        private List<Entry> ending = List.of();
+
+        private Node child(char key) {
+            int index = Arrays.binarySearch(keys, key);
+            return index >= 0 ? children[index] : null;
+        }
+
+        private Node childOrCreate(char key) {
+            int index = Arrays.binarySearch(keys, key);
+            if (index >= 0) {
+                return children[index];
+            }
+            int insertAt = -index - 1;
+            char[] newKeys = new char[keys.length + 1];
+            Node[] newChildren = new Node[children.length + 1];
+            System.arraycopy(keys, 0, newKeys, 0, insertAt);
+            System.arraycopy(children, 0, newChildren, 0, insertAt);
+            newKeys[insertAt] = key;
+            newChildren[insertAt] = new Node();
+            System.arraycopy(keys, insertAt, newKeys, insertAt + 1, keys.length - insertAt);
+            System.arraycopy(children, insertAt, newChildren, insertAt + 1, children.length - insertAt);
+            keys = newKeys;
+            children = newChildren;
+            return newChildren[insertAt];
+        }
+
+        private void addEnding(Entry entry) {
+            if (ending.isEmpty()) {
+                ending = new ArrayList<>(1);
+            }
+            ending.add(entry);
+        }
+
+        private void removeEnding(Entry entry) {
+            if (ending.remove(entry) && ending.isEmpty()) {
+                ending = List.of();
+            }
+        }
+
+        private void offer(Entry entry, int capacity) {
+            int position = Collections.binarySearch(entries, entry, BY_RELEASES);
+            int insertAt = position >= 0 ? position : -position - 1;
+            if (insertAt >= capacity) {
+                return;
+            }
+            entries.add(insertAt, entry);
+            if (entries.size() > capacity) {
+                entries.remove(entries.size() - 1);
+            }
+        }
+    }
+}
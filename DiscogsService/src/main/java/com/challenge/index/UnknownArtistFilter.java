@@ -0,0 +1,49 @@
+package com.challenge.index;
+
+import com.challenge.events.ArtistStoredEvent;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * TTL-bounded negative cache of artist ids Discogs reported as missing, so repeated requests for them are
+ * answered without a database or Discogs round trip. Ids stored since, here or on another instance, are
+ * dropped from it.
+ */
+@Component
+public class UnknownArtistFilter {
+
+    private final Cache<String, Boolean> missingUpstream;
+
+    public UnknownArtistFilter(@Value("${discogs.unknown-artists.negative-ttl:PT10M}") Duration negativeTtl,
+                               @Value("${discogs.unknown-artists.negative-max-size:100000}") long negativeMaxSize) {
+        this.missingUpstream = Caffeine.newBuilder()
+                .expireAfterWrite(negativeTtl)
+                .maximumSize(negativeMaxSize)
+                .build();
+    }
+
+    @EventListener
+    public void onArtistStored(ArtistStoredEvent event) {
+        recordStored(event.getDiscogsId());
+    }
+
+    /**
+     * Marks an id as stored. Also used for artists another instance stored, which this node has not seen announced.
+     */
+    public void recordStored(String discogsId) {
+        missingUpstream.invalidate(discogsId);
+    }
+
+    public boolean isKnownMissing(String discogsId) {
+        return missingUpstream.getIfPresent(discogsId) != null;
+    }
+
+    public void recordMissing(String discogsId) {
+        missingUpstream.put(discogsId, Boolean.TRUE);
+    }
+}
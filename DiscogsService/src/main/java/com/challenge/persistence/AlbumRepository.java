@@ -1,17 +1,47 @@
 package com.challenge.persistence;
 
+import com.challenge.api.core.Album;
+import com.challenge.dtos.AlbumRowDto;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
 import java.util.List;
 
 public interface AlbumRepository extends JpaRepository<AlbumEntity, Long> {
+    String ALBUM_COUNT_CACHE_REGION = "album-counts";
+
     List<AlbumEntity> findByArtistIdOrderByYearAsc(Long artistId);
 
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = ALBUM_COUNT_CACHE_REGION)
+    })
+    long countByArtistId(Long artistId);
+
     @Query("SELECT al FROM AlbumEntity al WHERE al.artist.id = :artistId")
     Page<AlbumEntity> findAlbumsByArtistId(@Param("artistId") Long artistId, Pageable pageable);
+
+    //page content only, projected straight into the API type so no entity or artist row is loaded;
+    //the total is resolved separately through the cached count
+    @Query("SELECT new com.challenge.api.core.Album(al.title, al.year, al.format, al.label) " +
+            "FROM AlbumEntity al WHERE al.artist.id = :artistId")
+    List<Album> findAlbumPageByArtistId(@Param("artistId") Long artistId, Pageable pageable);
+
+    //fetches one row past the page to tell whether another page follows, no count is run
+    @Query("SELECT new com.challenge.api.core.Album(al.title, al.year, al.format, al.label) " +
+            "FROM AlbumEntity al WHERE al.artist.id = :artistId")
+    Slice<Album> findAlbumSliceByArtistId(@Param("artistId") Long artistId, Pageable pageable);
+
+    //keyset pagination over the albums of an artist, used to stream a whole discography in bounded chunks
+    @Query("SELECT new com.challenge.dtos.AlbumRowDto(al.id, al.title, al.year, al.format, al.label) " +
+            "FROM AlbumEntity al WHERE al.artist.id = :artistId AND al.id > :afterId ORDER BY al.id")
+    List<AlbumRowDto> findAlbumRowsAfterId(@Param("artistId") Long artistId, @Param("afterId") Long afterId, Pageable pageable);
 }
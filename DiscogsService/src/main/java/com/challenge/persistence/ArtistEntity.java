@@ -1,12 +1,20 @@
 package com.challenge.persistence;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.NaturalIdCache;
 
+import java.time.Instant;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+@NaturalIdCache
 @Table(name = "artist", indexes = { @Index(name = "artist_unique_idx", columnList = "id", unique = true) })
 public class ArtistEntity {
 
@@ -14,6 +22,7 @@ public class ArtistEntity {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
+    @NaturalId
     @Column(name = "discogs_id", nullable = false, unique = true)
     private String discogsId;
 
@@ -24,6 +33,12 @@ public class ArtistEntity {
     @Column(columnDefinition = "TEXT")
     private String profile;
 
+    @Column(name = "ingested_at")
+    private Instant ingestedAt;
+
+    @Column(name = "album_count")
+    private Long albumCount;
+
     @OneToMany(mappedBy = "artist", cascade = CascadeType.ALL, orphanRemoval = true)
     private List<AlbumEntity> albums;
 
@@ -68,6 +83,22 @@ public class ArtistEntity {
         this.albums = albums;
     }
 
+    public Instant getIngestedAt() {
+        return ingestedAt;
+    }
+
+    public void setIngestedAt(Instant ingestedAt) {
+        this.ingestedAt = ingestedAt;
+    }
+
+    public Long getAlbumCount() {
+        return albumCount;
+    }
+
+    public void setAlbumCount(Long albumCount) {
+        this.albumCount = albumCount;
+    }
+
     public String getDiscogsId() {
         return discogsId;
     }
@@ -1,7 +1,8 @@
 package com.challenge.persistence;
 
 
-import com.challenge.dtos.ArtistWithAlbumsDTO;
+import com.challenge.dtos.ArtistReleaseCountDto;
+import com.challenge.dtos.ArtistStatsDto;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -12,13 +13,35 @@ import org.springframework.data.repository.query.Param;
 import java.util.List;
 import java.util.Optional;
 
-public interface ArtistRepository extends JpaRepository<ArtistEntity, Long> {
+public interface ArtistRepository extends JpaRepository<ArtistEntity, Long>, ArtistRepositoryCustom {
     Optional<ArtistEntity> findByName(String name);
 
-    Optional<ArtistEntity> findByDiscogsId(String discogsId);
-
     //this query is for the cases in which I need to retrieve all albums with each artist,
     //otherwise Lazy loading is applied
-    @Query("SELECT a FROM ArtistEntity a LEFT JOIN FETCH a.albums WHERE a.discogsId IN :discogsIds")
+    @Query("SELECT a FROM ArtistEntity a LEFT JOIN FETCH a.albums WHERE a.discogsId IN :discogsIds " +
+            "AND a.ingestedAt IS NOT NULL")
     List<ArtistEntity> findArtistsWithAlbums(@Param("discogsIds") List<String> discogsIds);
+
+    @Query("SELECT new com.challenge.dtos.ArtistReleaseCountDto(a.discogsId, a.name, COUNT(al)) " +
+            "FROM ArtistEntity a LEFT JOIN a.albums al WHERE a.ingestedAt IS NOT NULL GROUP BY a.id, a.discogsId, a.name")
+    List<ArtistReleaseCountDto> findArtistReleaseCounts();
+
+    String ARTIST_STATS = "SELECT new com.challenge.dtos.ArtistStatsDto(a.discogsId, a.name, COUNT(al), " +
+            "MIN(al.year), MAX(al.year)) FROM ArtistEntity a LEFT JOIN a.albums al WHERE a.ingestedAt IS NOT NULL " +
+            "GROUP BY a.id, a.discogsId, a.name ";
+
+    //same as HelperMethods.getActiveYears
+    String ACTIVE_YEARS = "CASE WHEN MIN(al.year) > 0 AND MAX(al.year) > 0 THEN MAX(al.year) - MIN(al.year) + 1 ELSE 0 END";
+
+    //the leaderboard only loads the head of each ranking, in the order it ranks them
+    @Query(ARTIST_STATS + "ORDER BY COUNT(al) DESC, " + ACTIVE_YEARS + " DESC, a.discogsId")
+    List<ArtistStatsDto> findTopArtistStatsByReleases(Pageable pageable);
+
+    @Query(ARTIST_STATS + "ORDER BY " + ACTIVE_YEARS + " DESC, COUNT(al) DESC, a.discogsId")
+    List<ArtistStatsDto> findTopArtistStatsByActiveYears(Pageable pageable);
+
+    @Query("SELECT new com.challenge.dtos.ArtistReleaseCountDto(a.discogsId, a.name, a.albumCount) " +
+            "FROM ArtistEntity a WHERE a.discogsId IN :discogsIds " +
+            "AND a.ingestedAt IS NOT NULL AND a.albumCount IS NOT NULL")
+    List<ArtistReleaseCountDto> findStoredReleaseCounts(@Param("discogsIds") List<String> discogsIds);
 }
\ No newline at end of file
@@ -0,0 +1,9 @@
+package com.challenge.persistence;
+
+import java.util.Optional;
+
+public interface ArtistRepositoryCustom {
+
+    //resolved through the natural id, so hot artists are served from the second-level cache
+    Optional<ArtistEntity> findByDiscogsId(String discogsId);
+}
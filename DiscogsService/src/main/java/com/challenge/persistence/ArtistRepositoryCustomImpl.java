@@ -0,0 +1,23 @@
+package com.challenge.persistence;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Session;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Optional;
+
+public class ArtistRepositoryCustomImpl implements ArtistRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    //the session must stay open while the natural id is resolved, which needs a transaction
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<ArtistEntity> findByDiscogsId(String discogsId) {
+        return entityManager.unwrap(Session.class)
+                .bySimpleNaturalId(ArtistEntity.class)
+                .loadOptional(discogsId);
+    }
+}
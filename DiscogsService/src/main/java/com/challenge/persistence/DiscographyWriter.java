@@ -0,0 +1,118 @@
+package com.challenge.persistence;
+
+import com.challenge.helper.HelperMethods;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Idempotent bulk writes of artists and their albums. Rows are matched on their natural keys
+ * (artist.discogs_id and albums(artist_id, release_id, type)), so re-ingesting or retrying a
+ * discography updates the existing rows instead of duplicating them.
+ */
+@Repository
+public class DiscographyWriter {
+
+    private static final String UPSERT_ARTIST =
+            "INSERT INTO artist (discogs_id, name, profile) VALUES (?, ?, ?) " +
+                    "ON DUPLICATE KEY UPDATE name = VALUES(name), profile = VALUES(profile)";
+
+    private static final String UPSERT_ALBUMS_PREFIX =
+            "INSERT INTO albums (artist_id, title, year, release_id, type, format, label) VALUES ";
+
+    private static final String ALBUM_ROW_PLACEHOLDER = "(?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String UPSERT_ALBUMS_SUFFIX =
+            " ON DUPLICATE KEY UPDATE title = VALUES(title), year = VALUES(year), " +
+                    "format = VALUES(format), label = VALUES(label)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int batchSize;
+
+    public DiscographyWriter(JdbcTemplate jdbcTemplate,
+                             @Value("${discogs.persistence.upsert-batch-size:500}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.batchSize = batchSize;
+    }
+
+    public Long upsertArtist(ArtistEntity artist) {
+        jdbcTemplate.update(UPSERT_ARTIST, artist.getDiscogsId(), artist.getName(), artist.getProfile());
+        return jdbcTemplate.queryForObject("SELECT id FROM artist WHERE discogs_id = ?", Long.class, artist.getDiscogsId());
+    }
+
+    public void markIngested(Long artistDbId, long albumCount) {
+        jdbcTemplate.update("UPDATE artist SET ingested_at = CURRENT_TIMESTAMP, album_count = ? WHERE id = ?",
+                albumCount, artistDbId);
+    }
+
+    /**
+     * Replaces all the albums of an artist in one transaction, so readers see either the old or the new set.
+     * The new albums are pulled from the source one batch at a time and written as they arrive, so the
+     * whole discography is never held in memory.
+     */
+    @Transactional
+    public void replaceAlbums(Long artistDbId, Consumer<Consumer<List<AlbumEntity>>> albumBatches) {
+        jdbcTemplate.update("DELETE FROM albums WHERE artist_id = ?", artistDbId);
+        albumBatches.accept(batch -> upsertAlbums(artistDbId, batch));
+    }
+
+    public void updateAlbumCount(Long artistDbId, long albumCount) {
+        jdbcTemplate.update("UPDATE artist SET album_count = ? WHERE id = ?", albumCount, artistDbId);
+    }
+
+    /**
+     * Counts from MySQL directly, the cached album counts are only evicted once the ingestion is announced.
+     */
+    public long countAlbums(Long artistDbId) {
+        Long count = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM albums WHERE artist_id = ?", Long.class, artistDbId);
+        return count != null ? count : 0;
+    }
+
+    public int countActiveYears(Long artistDbId) {
+        Map<String, Object> years = jdbcTemplate.queryForMap(
+                "SELECT MIN(year) AS first_year, MAX(year) AS last_year FROM albums WHERE artist_id = ?", artistDbId);
+        return HelperMethods.getActiveYears(yearOf(years.get("first_year")), yearOf(years.get("last_year")));
+    }
+
+    /**
+     * Writes the albums as multi-row statements of at most {@code batchSize} rows each.
+     *
+     * @return the number of statements executed
+     */
+    public int upsertAlbums(Long artistDbId, List<AlbumEntity> albums) {
+        int statements = 0;
+        for (int from = 0; from < albums.size(); from += batchSize) {
+            List<AlbumEntity> batch = albums.subList(from, Math.min(from + batchSize, albums.size()));
+
+            String sql = UPSERT_ALBUMS_PREFIX
+                    + String.join(", ", Collections.nCopies(batch.size(), ALBUM_ROW_PLACEHOLDER))
+                    + UPSERT_ALBUMS_SUFFIX;
+
+            List<Object> parameters = new ArrayList<>(batch.size() * 7);
+            for (AlbumEntity album : batch) {
+                parameters.add(artistDbId);
+                parameters.add(album.getTitle());
+                parameters.add(album.getYear());
+                parameters.add(album.getReleaseId());
+                parameters.add(album.getType());
+                parameters.add(album.getFormat());
+                parameters.add(album.getLabel());
+            }
+
+            jdbcTemplate.update(sql, parameters.toArray());
+            statements++;
+        }
+        return statements;
+    }
+
+    private static int yearOf(Object year) {
+        return year != null ? ((Number) year).intValue() : 0;
+    }
+}
@@ -0,0 +1,165 @@
+package com.challenge.persistence;
+
+import com.challenge.exceptions.DatabaseConnectionException;
+import com.challenge.exceptions.IngestionInProgressException;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Makes sure only one ingestion per artist runs at a time. Callers in the same JVM queue on a local lock;
+ * across replicas the lease is a row in ingestion_lease with an owner and an expiry. The row is taken, renewed
+ * and released in single short statements, so no connection is held while an ingestion runs or while waiting
+ * for the lease, and the lease of a node that died expires on its own. Expiries are set and compared with the
+ * database clock only, so replicas whose clocks drift apart still agree on when a lease has expired.
+ * Whoever gets the lease after waiting should re-read the database before ingesting.
+ */
+@Component
+public class IngestionLeaseManager {
+
+    private static final Logger logger = LoggerFactory.getLogger(IngestionLeaseManager.class);
+
+    private static final String LOCK_PREFIX = "discogs-ingest:";
+
+    //MySQL has no millisecond unit for TIMESTAMPADD
+    private static final String EXPIRES_AT = "TIMESTAMPADD(MICROSECOND, ?, CURRENT_TIMESTAMP(3))";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final boolean distributed;
+    private final Duration waitTimeout;
+    private final Duration leaseTtl;
+    private final Duration pollInterval;
+
+    private final Map<String, LocalLease> localLeases = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService renewer;
+
+    public IngestionLeaseManager(JdbcTemplate jdbcTemplate,
+                                 @Value("${discogs.ingestion.lease.distributed:true}") boolean distributed,
+                                 @Value("${discogs.ingestion.lease.wait-timeout:PT2M}") Duration waitTimeout,
+                                 @Value("${discogs.ingestion.lease.ttl:PT1M}") Duration leaseTtl,
+                                 @Value("${discogs.ingestion.lease.poll-interval:PT0.5S}") Duration pollInterval) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.distributed = distributed;
+        this.waitTimeout = waitTimeout;
+        this.leaseTtl = leaseTtl;
+        this.pollInterval = pollInterval;
+        this.renewer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "ingestion-lease-renewer");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public <T> T runExclusive(String artistId, Supplier<T> action) {
+        String lockName = LOCK_PREFIX + artistId;
+        //one deadline for the local lock and the lease row together
+        long deadlineNanos = System.nanoTime() + waitTimeout.toNanos();
+        LocalLease localLease = localLeases.compute(lockName, (name, lease) -> {
+            LocalLease current = lease != null ? lease : new LocalLease();
+            current.holders++;
+            return current;
+        });
+
+        try {
+            if (!localLease.lock.tryLock(deadlineNanos - System.nanoTime(), TimeUnit.NANOSECONDS)) {
+                throw new IngestionInProgressException("Ingestion of artist " + artistId + " is still in progress");
+            }
+            try {
+                return distributed ? runWithLeaseRow(lockName, artistId, deadlineNanos, action) : action.get();
+            } finally {
+                localLease.lock.unlock();
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IngestionInProgressException("Interrupted while waiting for the ingestion of artist " + artistId, ex);
+        } finally {
+            localLeases.compute(lockName, (name, lease) -> --lease.holders == 0 ? null : lease);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        renewer.shutdownNow();
+    }
+
+    private <T> T runWithLeaseRow(String lockName, String artistId, long deadlineNanos, Supplier<T> action)
+            throws InterruptedException {
+        String owner = UUID.randomUUID().toString();
+        try {
+            while (!tryAcquire(lockName, owner)) {
+                long remainingNanos = deadlineNanos - System.nanoTime();
+                if (remainingNanos <= 0) {
+                    throw new IngestionInProgressException(
+                            "Ingestion of artist " + artistId + " is in progress on another node");
+                }
+                TimeUnit.NANOSECONDS.sleep(Math.min(remainingNanos, pollInterval.toNanos()));
+            }
+        } catch (DataAccessException ex) {
+            throw new DatabaseConnectionException("Could not take the ingestion lease for artist " + artistId, ex);
+        }
+
+        //the ingestion may outlive the TTL, the lease is renewed while it runs
+        long renewMillis = Math.max(1, leaseTtl.toMillis() / 3);
+        ScheduledFuture<?> renewal = renewer.scheduleAtFixedRate(() -> renew(lockName, owner),
+                renewMillis, renewMillis, TimeUnit.MILLISECONDS);
+        try {
+            return action.get();
+        } finally {
+            renewal.cancel(false);
+            release(lockName, owner);
+        }
+    }
+
+    //a free name is inserted, an expired lease is taken over, a live one is left alone
+    private boolean tryAcquire(String lockName, String owner) {
+        long ttlMicros = leaseTtl.toNanos() / 1000;
+        if (jdbcTemplate.update("INSERT IGNORE INTO ingestion_lease (lock_name, owner, expires_at) " +
+                "VALUES (?, ?, " + EXPIRES_AT + ")", lockName, owner, ttlMicros) == 1) {
+            return true;
+        }
+        return jdbcTemplate.update("UPDATE ingestion_lease SET owner = ?, expires_at = " + EXPIRES_AT +
+                " WHERE lock_name = ? AND expires_at < CURRENT_TIMESTAMP(3)", owner, ttlMicros, lockName) == 1;
+    }
+
+    private void renew(String lockName, String owner) {
+        try {
+            int renewed = jdbcTemplate.update(
+                    "UPDATE ingestion_lease SET expires_at = " + EXPIRES_AT + " WHERE lock_name = ? AND owner = ?",
+                    leaseTtl.toNanos() / 1000, lockName, owner);
+            if (renewed == 0) {
+                logger.warn("Ingestion lease {} expired before it could be renewed", lockName);
+            }
+        } catch (DataAccessException ex) {
+            logger.warn("Could not renew ingestion lease {}: {}", lockName, ex.getMessage());
+        }
+    }
+
+    private void release(String lockName, String owner) {
+        try {
+            jdbcTemplate.update("DELETE FROM ingestion_lease WHERE lock_name = ? AND owner = ?", lockName, owner);
+        } catch (DataAccessException ex) {
+            //the lease expires on its own after the TTL
+            logger.warn("Could not release ingestion lease {}: {}", lockName, ex.getMessage());
+        }
+    }
+
+    private static final class LocalLease {
+        private final ReentrantLock lock = new ReentrantLock();
+        private int holders;
+    }
+}
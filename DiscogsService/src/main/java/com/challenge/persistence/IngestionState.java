@@ -0,0 +1,43 @@
+package com.challenge.persistence;
+
+import java.util.Set;
+
+/**
+ * Checkpoint of an unfinished discography ingestion.
+ */
+public class IngestionState {
+
+    private final String discogsId;
+    private final int perPage;
+    private final Integer totalPages;
+    private final Set<Integer> fetchedPages;
+    private final String lastError;
+
+    public IngestionState(String discogsId, int perPage, Integer totalPages, Set<Integer> fetchedPages, String lastError) {
+        this.discogsId = discogsId;
+        this.perPage = perPage;
+        this.totalPages = totalPages;
+        this.fetchedPages = fetchedPages;
+        this.lastError = lastError;
+    }
+
+    public String getDiscogsId() {
+        return discogsId;
+    }
+
+    public int getPerPage() {
+        return perPage;
+    }
+
+    public Integer getTotalPages() {
+        return totalPages;
+    }
+
+    public Set<Integer> getFetchedPages() {
+        return fetchedPages;
+    }
+
+    public String getLastError() {
+        return lastError;
+    }
+}
@@ -0,0 +1,80 @@
+package com.challenge.persistence;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Per-page checkpoints of discography ingestions, so an ingestion that failed or was interrupted
+ * resumes from the pages it is missing. Callers hold the ingestion lease of the artist.
+ */
+@Repository
+public class IngestionStateRepository {
+
+    private static final int MAX_ERROR_LENGTH = 1024;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public IngestionStateRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Reads straight from MySQL rather than through the second-level cache, which may not have seen
+     * an ingestion completed by another instance.
+     */
+    public Optional<Long> findIngestedArtistId(String discogsId) {
+        List<Long> ids = jdbcTemplate.queryForList(
+                "SELECT id FROM artist WHERE discogs_id = ? AND ingested_at IS NOT NULL", Long.class, discogsId);
+        return ids.stream().findFirst();
+    }
+
+    /**
+     * Returns the checkpoint of the artist, creating it if there is none. Fetched pages are discarded
+     * when they were fetched with a different page size.
+     */
+    @Transactional
+    public IngestionState begin(String discogsId, int perPage) {
+        List<Map<String, Object>> rows = jdbcTemplate.queryForList(
+                "SELECT per_page, total_pages, last_error FROM ingestion_state WHERE discogs_id = ?", discogsId);
+
+        if (rows.isEmpty()) {
+            jdbcTemplate.update("INSERT INTO ingestion_state (discogs_id, per_page) VALUES (?, ?)", discogsId, perPage);
+            return new IngestionState(discogsId, perPage, null, Set.of(), null);
+        }
+
+        Map<String, Object> row = rows.get(0);
+        if (((Number) row.get("per_page")).intValue() != perPage) {
+            jdbcTemplate.update("DELETE FROM ingestion_fetched_page WHERE discogs_id = ?", discogsId);
+            jdbcTemplate.update("UPDATE ingestion_state SET per_page = ?, total_pages = NULL WHERE discogs_id = ?",
+                    perPage, discogsId);
+            return new IngestionState(discogsId, perPage, null, Set.of(), (String) row.get("last_error"));
+        }
+
+        Set<Integer> fetchedPages = new HashSet<>(jdbcTemplate.queryForList(
+                "SELECT page FROM ingestion_fetched_page WHERE discogs_id = ?", Integer.class, discogsId));
+        Number totalPages = (Number) row.get("total_pages");
+        return new IngestionState(discogsId, perPage, totalPages != null ? totalPages.intValue() : null,
+                fetchedPages, (String) row.get("last_error"));
+    }
+
+    public void recordPage(String discogsId, int page, int totalPages) {
+        jdbcTemplate.update("INSERT IGNORE INTO ingestion_fetched_page (discogs_id, page) VALUES (?, ?)", discogsId, page);
+        jdbcTemplate.update("UPDATE ingestion_state SET total_pages = ? WHERE discogs_id = ?", totalPages, discogsId);
+    }
+
+    public void recordError(String discogsId, String error) {
+        String message = error != null && error.length() > MAX_ERROR_LENGTH ? error.substring(0, MAX_ERROR_LENGTH) : error;
+        jdbcTemplate.update("UPDATE ingestion_state SET last_error = ? WHERE discogs_id = ?", message, discogsId);
+    }
+
+    public void complete(String discogsId) {
+        jdbcTemplate.update("DELETE FROM ingestion_state WHERE discogs_id = ?", discogsId);
+    }
+}
@@ -0,0 +1,109 @@
+package com.challenge.persistence;
+
+import com.challenge.services.RatePermitLedger;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Duration;
+
+/**
+ * Rate permit ledger kept in the database shared by all the replicas. Each row counts the permits
+ * handed out for one bucket and time window; each grant is a single conditional increment of that
+ * counter, so leases never exceed the window limit across instances and an empty lease always means
+ * the window is exhausted.
+ */
+@Component
+@ConditionalOnProperty(name = "discogs.api.rate-limit.distributed.enabled", havingValue = "true")
+public class JdbcRatePermitLedger implements RatePermitLedger {
+
+    private static final Logger logger = LoggerFactory.getLogger(JdbcRatePermitLedger.class);
+
+    private static final int RETAINED_WINDOWS = 10;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final String bucket;
+    private final int permitsPerWindow;
+    private final long windowMillis;
+    private final Clock clock;
+
+    private volatile long openedWindow = -1;
+
+    @Autowired
+    public JdbcRatePermitLedger(JdbcTemplate jdbcTemplate,
+                                @Value("${discogs.api.rate-limit.distributed.bucket:discogs}") String bucket,
+                                @Value("${discogs.api.rate-limit.requests-per-minute:60}") int requestsPerMinute) {
+        this(jdbcTemplate, bucket, requestsPerMinute, Duration.ofMinutes(1), Clock.systemUTC());
+    }
+
+    JdbcRatePermitLedger(JdbcTemplate jdbcTemplate, String bucket, int permitsPerWindow, Duration window, Clock clock) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.bucket = bucket;
+        this.permitsPerWindow = permitsPerWindow;
+        this.windowMillis = window.toMillis();
+        this.clock = clock;
+    }
+
+    @Override
+    public Lease lease(int permits) {
+        long window = currentWindow();
+        try {
+            ensureWindowRow(window);
+            int granted = Math.min(permits, permitsPerWindow);
+            while (granted > 0) {
+                //the increment only applies when it still fits, the row lock makes check and add one step
+                int updated = jdbcTemplate.update(
+                        "UPDATE rate_limit_ledger SET permits_used = permits_used + ? " +
+                                "WHERE bucket = ? AND window_start = ? AND permits_used <= ?",
+                        granted, bucket, window, permitsPerWindow - granted);
+                if (updated == 1) {
+                    return new Lease(window, granted);
+                }
+                //less than asked for is left; a miss here means another instance took permits in between,
+                //so the loop ends once the window is really exhausted
+                Integer used = jdbcTemplate.queryForObject(
+                        "SELECT permits_used FROM rate_limit_ledger WHERE bucket = ? AND window_start = ?",
+                        Integer.class, bucket, window);
+                granted = Math.min(granted - 1, permitsPerWindow - (used != null ? used : 0));
+            }
+            return new Lease(window, 0);
+        } catch (DataAccessException ex) {
+            //fail open: losing coordination is better than stopping every call to Discogs
+            logger.warn("Rate limit ledger unavailable, granting {} local permits: {}", permits, ex.getMessage());
+            return new Lease(window, permits);
+        }
+    }
+
+    @Override
+    public long currentWindow() {
+        return clock.millis() / windowMillis;
+    }
+
+    @Override
+    public long millisUntilNextWindow() {
+        return windowMillis - clock.millis() % windowMillis;
+    }
+
+    private void ensureWindowRow(long window) {
+        if (openedWindow == window) {
+            return;
+        }
+        try {
+            jdbcTemplate.update(
+                    "INSERT INTO rate_limit_ledger (bucket, window_start, permits_used) VALUES (?, ?, 0)",
+                    bucket, window);
+            jdbcTemplate.update("DELETE FROM rate_limit_ledger WHERE bucket = ? AND window_start < ?",
+                    bucket, window - RETAINED_WINDOWS);
+        } catch (DuplicateKeyException ex) {
+            //another instance already opened this window
+        }
+        openedWindow = window;
+    }
+}
@@ -0,0 +1,111 @@
+package com.challenge.persistence;
+
+import com.challenge.services.ReleasePageArchive;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.function.ObjIntConsumer;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Release page archive kept in MySQL, one gzip-compressed row per artist, page size and page.
+ * Pages fetched again overwrite the archived copy, and a completed fetch prunes the pages it did not return.
+ */
+@Component
+@ConditionalOnProperty(name = "discogs.archive.enabled", havingValue = "true")
+public class JdbcReleasePageArchive implements ReleasePageArchive {
+
+    private static final Logger logger = LoggerFactory.getLogger(JdbcReleasePageArchive.class);
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public JdbcReleasePageArchive(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void store(String artistId, int page, int perPage, String body) {
+        try {
+            jdbcTemplate.update("INSERT INTO release_page_archive (discogs_id, per_page, page, body) " +
+                            "VALUES (?, ?, ?, ?) ON DUPLICATE KEY UPDATE body = VALUES(body)",
+                    artistId, perPage, page, compress(body));
+        } catch (DataAccessException ex) {
+            //the ingestion still stores the page, it is only missing from the archive
+            logger.warn("Could not archive release page {} of artist {}: {}", page, artistId, ex.getMessage());
+        }
+    }
+
+    @Override
+    public void retainOnly(String artistId, int perPage, int totalPages) {
+        try {
+            int pruned = jdbcTemplate.update("DELETE FROM release_page_archive " +
+                    "WHERE discogs_id = ? AND (per_page <> ? OR page > ?)", artistId, perPage, totalPages);
+            if (pruned > 0) {
+                logger.debug("Pruned {} stale archived release pages of artist {}", pruned, artistId);
+            }
+        } catch (DataAccessException ex) {
+            //the stale pages stay until the next completed fetch of the artist prunes them
+            logger.warn("Could not prune archived release pages of artist {}: {}", artistId, ex.getMessage());
+        }
+    }
+
+    /**
+     * The ingested artists that have archived pages, with their id, Discogs id and name. Artists with an
+     * unfinished ingestion are left out, their archive may still mix the pages of an earlier fetch.
+     */
+    public List<ArtistEntity> findArchivedArtists() {
+        return jdbcTemplate.query("SELECT a.id, a.discogs_id, a.name FROM artist a " +
+                        "WHERE a.ingested_at IS NOT NULL " +
+                        "AND EXISTS (SELECT 1 FROM release_page_archive r WHERE r.discogs_id = a.discogs_id) " +
+                        "AND NOT EXISTS (SELECT 1 FROM ingestion_state s WHERE s.discogs_id = a.discogs_id)",
+                (rs, rowNum) -> {
+                    ArtistEntity artist = new ArtistEntity(rs.getString("discogs_id"), rs.getString("name"), null);
+                    artist.setId(rs.getLong("id"));
+                    return artist;
+                });
+    }
+
+    public long countPages() {
+        Long count = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM release_page_archive", Long.class);
+        return count != null ? count : 0;
+    }
+
+    /**
+     * Hands the archived pages of an artist to the consumer one at a time with their page size, so only one
+     * page is decompressed in memory at any moment.
+     */
+    public void forEachPage(String artistId, ObjIntConsumer<String> consumer) {
+        jdbcTemplate.query("SELECT per_page, body FROM release_page_archive WHERE discogs_id = ? " +
+                        "ORDER BY per_page, page",
+                rs -> consumer.accept(decompress(rs.getBytes("body")), rs.getInt("per_page")), artistId);
+    }
+
+    private static byte[] compress(String body) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(bytes)) {
+            gzip.write(body.getBytes(StandardCharsets.UTF_8));
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static String decompress(byte[] body) {
+        try (GZIPInputStream gzip = new GZIPInputStream(new ByteArrayInputStream(body))) {
+            return new String(gzip.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+}
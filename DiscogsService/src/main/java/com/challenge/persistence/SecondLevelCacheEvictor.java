@@ -0,0 +1,30 @@
+package com.challenge.persistence;
+
+import com.challenge.events.ArtistStoredEvent;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Discographies are written with plain JDBC, which Hibernate does not see, so the cached artist
+ * and the cached album counts are evicted explicitly after every write.
+ */
+@Component
+public class SecondLevelCacheEvictor {
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    public SecondLevelCacheEvictor(EntityManagerFactory entityManagerFactory) {
+        this.entityManagerFactory = entityManagerFactory;
+    }
+
+    @EventListener
+    public void onArtistStored(ArtistStoredEvent event) {
+        if (event.getArtistDbId() != null) {
+            entityManagerFactory.getCache().evict(ArtistEntity.class, event.getArtistDbId());
+        }
+        entityManagerFactory.unwrap(SessionFactory.class).getCache()
+                .evictQueryRegion(AlbumRepository.ALBUM_COUNT_CACHE_REGION);
+    }
+}
@@ -0,0 +1,138 @@
+package com.challenge.service;
+
+import com.challenge.events.ArtistStoredEvent;
+import com.challenge.exceptions.ExternalApiException;
+import com.challenge.exceptions.GeneralApplicationException;
+import com.challenge.exceptions.ResourceNotFoundException;
+import com.challenge.helper.HelperMethods;
+import com.challenge.logging.CorrelationId;
+import com.challenge.model.DiscogsAlbumResponse;
+import com.challenge.persistence.ArtistEntity;
+import com.challenge.persistence.DiscographyWriter;
+import com.challenge.persistence.IngestionLeaseManager;
+import com.challenge.persistence.JdbcReleasePageArchive;
+import com.challenge.services.IngestionProgressListener;
+import com.challenge.services.MemoryBudgetManager;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Rebuilds the stored albums of every archived artist from the release page archive with the current
+ * mapping rules, without calling Discogs. Artists are reprocessed in parallel.
+ */
+@Service
+public class ArchiveReprocessor {
+
+    private static final Logger logger = LoggerFactory.getLogger(ArchiveReprocessor.class);
+
+    private final ObjectProvider<JdbcReleasePageArchive> archiveProvider;
+    private final DiscographyWriter discographyWriter;
+    private final IngestionLeaseManager ingestionLeaseManager;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ObjectMapper objectMapper;
+    private final MemoryBudgetManager memoryBudget;
+    private final int threads;
+
+    public ArchiveReprocessor(ObjectProvider<JdbcReleasePageArchive> archiveProvider,
+                              DiscographyWriter discographyWriter,
+                              IngestionLeaseManager ingestionLeaseManager,
+                              ApplicationEventPublisher eventPublisher,
+                              ObjectMapper objectMapper,
+                              MemoryBudgetManager memoryBudget,
+                              @Value("${discogs.archive.reprocess.threads:4}") int threads) {
+        this.archiveProvider = archiveProvider;
+        this.discographyWriter = discographyWriter;
+        this.ingestionLeaseManager = ingestionLeaseManager;
+        this.eventPublisher = eventPublisher;
+        this.objectMapper = objectMapper;
+        this.memoryBudget = memoryBudget;
+        this.threads = threads;
+    }
+
+    public boolean isArchiveEnabled() {
+        return archiveProvider.getIfAvailable() != null;
+    }
+
+    /**
+     * @return the number of albums stored after reprocessing
+     */
+    public int reprocess(IngestionProgressListener listener) {
+        JdbcReleasePageArchive archive = archiveProvider.getIfAvailable();
+        if (archive == null) {
+            throw new ResourceNotFoundException("Release page archive is not enabled");
+        }
+
+        List<ArtistEntity> artists = archive.findArchivedArtists();
+        listener.onTotalPages((int) archive.countPages());
+        logger.info("Reprocessing the archived discographies of {} artists", artists.size());
+
+        AtomicInteger threadCounter = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "archive-reprocess-" + threadCounter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            List<Future<Long>> futures = new ArrayList<>(artists.size());
+            for (ArtistEntity artist : artists) {
+                //the lease keeps a concurrent ingestion of the same artist from interleaving with the rebuild
+                futures.add(executor.submit(CorrelationId.wrap(() -> ingestionLeaseManager.runExclusive(
+                        artist.getDiscogsId(), () -> reprocessArtist(archive, artist, listener)))));
+            }
+
+            long albumsStored = 0;
+            for (Future<Long> future : futures) {
+                albumsStored += future.get();
+            }
+            return (int) Math.min(Integer.MAX_VALUE, albumsStored);
+        } catch (ExecutionException ex) {
+            throw ex.getCause() instanceof RuntimeException runtimeException
+                    ? runtimeException
+                    : new GeneralApplicationException("Reprocessing the release page archive failed", ex.getCause());
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new GeneralApplicationException("Interrupted while reprocessing the release page archive", ex);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private long reprocessArtist(JdbcReleasePageArchive archive, ArtistEntity artist, IngestionProgressListener listener) {
+        //pages are written as they are read, each one reserved against the ingestion memory budget meanwhile
+        discographyWriter.replaceAlbums(artist.getId(), albumBatches -> archive.forEachPage(artist.getDiscogsId(),
+                (body, perPage) -> {
+                    try (MemoryBudgetManager.Reservation ignored =
+                                 memoryBudget.reserve(memoryBudget.estimateBytes(perPage))) {
+                        DiscogsAlbumResponse response = objectMapper.readValue(body, DiscogsAlbumResponse.class);
+                        if (response != null && response.getReleases() != null) {
+                            albumBatches.accept(HelperMethods.getAlbumEntities(response, artist));
+                            listener.onPageFetched(response.getReleases().size());
+                        }
+                    } catch (JsonProcessingException e) {
+                        throw new ExternalApiException("Invalid archived album data for artist "
+                                + artist.getDiscogsId(), e);
+                    }
+                }));
+
+        long albumCount = discographyWriter.countAlbums(artist.getId());
+        discographyWriter.updateAlbumCount(artist.getId(), albumCount);
+
+        eventPublisher.publishEvent(new ArtistStoredEvent(artist.getId(), artist.getDiscogsId(), artist.getName(),
+                albumCount, discographyWriter.countActiveYears(artist.getId())));
+        return albumCount;
+    }
+}
@@ -0,0 +1,107 @@
+package com.challenge.service;
+
+import com.challenge.exceptions.TooManyRequestsException;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Stale-while-revalidate policy for stored discographies. A stored artist older than the freshness TTL is
+ * still served from the database, and at most one background refresh is scheduled for it per retry interval.
+ */
+@Component
+public class DiscographyRefresher {
+
+    private static final Logger logger = LoggerFactory.getLogger(DiscographyRefresher.class);
+
+    public enum Outcome {
+        FRESH, SCHEDULED, PENDING, REJECTED;
+
+        public String headerValue() {
+            return name().toLowerCase(Locale.ROOT);
+        }
+    }
+
+    private final Duration freshnessTtl;
+    private final Cache<String, Boolean> recentRefreshes;
+
+    private final DistributionSummary dataAge;
+    private final Map<Outcome, Counter> outcomes = new EnumMap<>(Outcome.class);
+    private final Counter refreshesSucceeded;
+    private final Counter refreshesFailed;
+
+    public DiscographyRefresher(@Value("${discogs.discography.freshness-ttl:P7D}") Duration freshnessTtl,
+                                @Value("${discogs.discography.refresh-retry-interval:PT15M}") Duration retryInterval,
+                                MeterRegistry meterRegistry) {
+        this.freshnessTtl = freshnessTtl;
+        this.recentRefreshes = Caffeine.newBuilder()
+                .expireAfterWrite(retryInterval)
+                .build();
+
+        this.dataAge = DistributionSummary.builder("discogs.discography.age")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+        for (Outcome outcome : Outcome.values()) {
+            outcomes.put(outcome, Counter.builder("discogs.discography.refresh")
+                    .tag("outcome", outcome.headerValue())
+                    .register(meterRegistry));
+        }
+        this.refreshesSucceeded = Counter.builder("discogs.discography.refresh.completed")
+                .tag("result", "success").register(meterRegistry);
+        this.refreshesFailed = Counter.builder("discogs.discography.refresh.completed")
+                .tag("result", "failure").register(meterRegistry);
+    }
+
+    public Duration ageOf(Instant ingestedAt) {
+        Duration age = Duration.between(ingestedAt, Instant.now());
+        return age.isNegative() ? Duration.ZERO : age;
+    }
+
+    /**
+     * Schedules a refresh when the artist is stale and no refresh was attempted for it recently.
+     * Never blocks on the refresh itself; a full ingestion queue only skips it.
+     */
+    public Outcome refreshIfStale(String artistId, Instant ingestedAt, Runnable scheduleRefresh) {
+        Duration age = ageOf(ingestedAt);
+        dataAge.record(age.toSeconds());
+
+        Outcome outcome;
+        if (freshnessTtl.isZero() || freshnessTtl.isNegative() || age.compareTo(freshnessTtl) < 0) {
+            outcome = Outcome.FRESH;
+        } else if (recentRefreshes.asMap().putIfAbsent(artistId, Boolean.TRUE) != null) {
+            outcome = Outcome.PENDING;
+        } else {
+            try {
+                scheduleRefresh.run();
+                outcome = Outcome.SCHEDULED;
+            } catch (TooManyRequestsException ex) {
+                //let the next request try again instead of waiting for the retry interval
+                recentRefreshes.invalidate(artistId);
+                outcome = Outcome.REJECTED;
+            }
+        }
+        outcomes.get(outcome).increment();
+        return outcome;
+    }
+
+    public void recordRefreshResult(String artistId, boolean succeeded) {
+        if (succeeded) {
+            refreshesSucceeded.increment();
+        } else {
+            refreshesFailed.increment();
+            logger.warn("Background refresh of artist {} failed, stored data keeps being served", artistId);
+        }
+    }
+}
@@ -4,120 +4,283 @@ package com.challenge.service;
 import com.challenge.api.core.Album;
 import com.challenge.api.core.Artist;
 import com.challenge.api.core.ArtistComparison;
+import com.challenge.api.core.ArtistRanking;
+import com.challenge.api.core.ArtistSuggestion;
+import com.challenge.api.core.IngestionJob;
 import com.challenge.api.core.DiscogsService;
+import com.challenge.cache.ArtistComparisonCache;
+import com.challenge.cache.SearchResultCache;
 import com.challenge.dtos.AlbumBasicDto;
+import com.challenge.dtos.AlbumRowDto;
 import com.challenge.dtos.ArtistWithAlbumsDTO;
+import com.challenge.events.ArtistStoredEvent;
 import com.challenge.exceptions.*;
 import com.challenge.helper.HelperMethods;
+import com.challenge.index.ArtistLeaderboard;
+import com.challenge.index.ArtistSuggestionIndex;
+import com.challenge.index.UnknownArtistFilter;
 import com.challenge.model.DiscogsAlbumResponse;
 import com.challenge.model.DiscogsArtistResponse;
 import com.challenge.model.DiscogsSearchArtistResponse;
 import com.challenge.persistence.*;
 import com.challenge.services.DiscogsApiClient;
+import com.challenge.services.IngestionProgressListener;
+import com.challenge.services.RequestPriority;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.dao.DataAccessException;
 import org.springframework.data.domain.*;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.http.server.reactive.ServerHttpResponse;
 import org.springframework.jdbc.CannotGetJdbcConnectionException;
 import org.springframework.retry.annotation.Backoff;
 import org.springframework.retry.annotation.Retryable;
 import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 
+import java.time.Duration;
 import java.util.*;
+import java.util.function.BiFunction;
 import java.util.stream.Collectors;
 
 @RestController
 public class DiscogsServiceImpl implements DiscogsService {
 
+    private static final int STREAM_CHUNK_SIZE = 500;
+
+    static final String DATA_AGE_HEADER = "X-Discography-Age";
+    static final String REFRESH_HEADER = "X-Discography-Refresh";
+
+    //job key of the archive reprocessing, so only one runs at a time
+    private static final String ARCHIVE_REPROCESSING_JOB = "release-page-archive";
+
     private final DiscogsApiClient discogsApiClient;
     private final ArtistRepository artistRepository;
     private final AlbumRepository albumRepository;
 
     private final HelperMethods helperMethods;
 
+    private final ArtistSuggestionIndex artistSuggestionIndex;
+    private final IngestionJobService ingestionJobService;
+    private final IngestionLeaseManager ingestionLeaseManager;
+    private final DiscographyWriter discographyWriter;
+    private final ApplicationEventPublisher eventPublisher;
+    private final UnknownArtistFilter unknownArtistFilter;
+    private final IngestionStateRepository ingestionStateRepository;
+    private final IngestionAdmissionController admissionController;
+    private final ArtistComparisonCache artistComparisonCache;
+    private final SearchResultCache searchResultCache;
+    private final SearchPrefetcher searchPrefetcher;
+    private final DiscographyRefresher discographyRefresher;
+    private final ArchiveReprocessor archiveReprocessor;
+    private final SearchEnricher searchEnricher;
+    private final ArtistLeaderboard artistLeaderboard;
+
     public DiscogsServiceImpl(DiscogsApiClient discogsApiClient, ArtistRepository artistRepository,
-                              AlbumRepository albumRepository, HelperMethods helperMethods) {
+                              AlbumRepository albumRepository, HelperMethods helperMethods,
+                              ArtistSuggestionIndex artistSuggestionIndex, IngestionJobService ingestionJobService,
+                              IngestionLeaseManager ingestionLeaseManager, DiscographyWriter discographyWriter,
+                              ApplicationEventPublisher eventPublisher, UnknownArtistFilter unknownArtistFilter,
+                              IngestionStateRepository ingestionStateRepository,
+                              IngestionAdmissionController admissionController,
+                              ArtistComparisonCache artistComparisonCache, SearchResultCache searchResultCache,
+                              SearchPrefetcher searchPrefetcher, DiscographyRefresher discographyRefresher,
+                              ArchiveReprocessor archiveReprocessor, SearchEnricher searchEnricher,
+                              ArtistLeaderboard artistLeaderboard) {
 
         this.discogsApiClient = discogsApiClient;
         this.artistRepository = artistRepository;
         this.albumRepository = albumRepository;
         this.helperMethods = helperMethods;
+        this.artistSuggestionIndex = artistSuggestionIndex;
+        this.ingestionJobService = ingestionJobService;
+        this.ingestionLeaseManager = ingestionLeaseManager;
+        this.discographyWriter = discographyWriter;
+        this.eventPublisher = eventPublisher;
+        this.unknownArtistFilter = unknownArtistFilter;
+        this.ingestionStateRepository = ingestionStateRepository;
+        this.admissionController = admissionController;
+        this.artistComparisonCache = artistComparisonCache;
+        this.searchResultCache = searchResultCache;
+        this.searchPrefetcher = searchPrefetcher;
+        this.discographyRefresher = discographyRefresher;
+        this.archiveReprocessor = archiveReprocessor;
+        this.searchEnricher = searchEnricher;
+        this.artistLeaderboard = artistLeaderboard;
     }
 
     @Override
-    public List<Artist> searchArtists(String artistName, int page, int perPage) throws JsonProcessingException {
-        DiscogsSearchArtistResponse response = discogsApiClient.searchArtist(artistName, page, perPage);
-
-        if (response == null || response.getResults() == null) {
-            return List.of();
+    public List<Artist> searchArtists(String artistName, int page, int perPage, boolean enrich)
+            throws JsonProcessingException {
+        List<Artist> artists = searchResultCache.get(artistName, page, perPage);
+        if (artists == null) {
+            DiscogsSearchArtistResponse response = discogsApiClient.searchArtist(artistName, page, perPage);
+            artists = HelperMethods.toArtists(response);
+            searchResultCache.put(artistName, page, perPage, artists, false);
         }
 
-        return response.getResults().stream()
-                .map(result -> {
-                    Artist artist = new Artist();
-                    artist.setDiscogsId(result.getId());
-                    artist.setName(result.getName());
-                    return artist;
-                })
-                .toList();
+        //a short page is the last one
+        if (artists.size() >= perPage) {
+            searchPrefetcher.prefetchNextPage(artistName, page, perPage);
+        }
+        return enrich ? searchEnricher.enrich(artists) : artists;
     }
 
     @Override
-    public Page<Album> getAndStoreArtistDiscography(String artistId, boolean sorted, int page, int perPage) {
-        if (page < 1 || perPage < 1) {
-            throw new IllegalArgumentException("Page and perPage must be greater than 0");
+    public List<ArtistSuggestion> suggestArtists(String prefix, int limit) {
+        if (prefix == null || prefix.isBlank()) {
+            throw new IllegalArgumentException("Prefix must not be blank");
         }
+        return artistSuggestionIndex.suggest(prefix, limit);
+    }
+
+    @Override
+    public Page<Album> getAndStoreArtistDiscography(String artistId, boolean sorted, int page, int perPage,
+                                                    ServerHttpResponse response) {
+        Pageable pageable = discographyPageable(sorted, page, perPage);
+        return readDiscography(artistId, response,
+                (artistDbId, albumCount) -> fetchAlbumsFromDatabase(artistDbId, albumCount, pageable));
+    }
+
+    @Override
+    public Slice<Album> getAndStoreArtistDiscographySlice(String artistId, boolean sorted, int page, int perPage,
+                                                          ServerHttpResponse response) {
+        Pageable pageable = discographyPageable(sorted, page, perPage);
+        return readDiscography(artistId, response,
+                (artistDbId, albumCount) -> albumRepository.findAlbumSliceByArtistId(artistDbId, pageable));
+    }
 
+    /**
+     * Reads a stored discography, ingesting it first when the artist is not stored yet. The reader gets the
+     * database id of the artist and its stored album count, which is null when it is not known.
+     * Stale artists are served as they are while a background refresh updates them.
+     */
+    private <T> T readDiscography(String artistId, ServerHttpResponse response, BiFunction<Long, Long, T> reader) {
         helperMethods.validateArtistId(artistId);
+        rejectKnownMissingArtist(artistId);
 
         try {
             Optional<ArtistEntity> existingArtist = findArtistByDiscogsId(artistId);
 
-            Page<AlbumEntity> albumPage;
-
-            if (existingArtist.isPresent()) {
-                Long artistDbId = existingArtist.get().getId();
-                albumPage = fetchAlbumsFromDatabase(artistDbId, sorted, page, perPage);
-            } else {
-                DiscogsArtistResponse.Artist artistResponse = discogsApiClient.getArtistDetails(artistId);
+            if (existingArtist.isPresent() && existingArtist.get().getIngestedAt() != null) {
+                ArtistEntity artist = existingArtist.get();
+                DiscographyRefresher.Outcome outcome = discographyRefresher.refreshIfStale(artistId,
+                        artist.getIngestedAt(), () -> submitDiscographyRefresh(artistId));
+                writeFreshnessHeaders(response, discographyRefresher.ageOf(artist.getIngestedAt()), outcome);
+                return reader.apply(artist.getId(), artist.getAlbumCount());
+            }
 
-                if (artistResponse == null || artistResponse.getName() == null) {
-                    throw new ExternalApiException("No valid artist data returned from Discogs API");
+            //the admission slot is taken before the lease, so callers queued for a slot hold no lease and no
+            //connection; warm reads never get here
+            return admissionController.admit(() -> ingestionLeaseManager.runExclusive(artistId, () -> {
+                //another request may have stored the artist while this one waited for the slot or the lease
+                Optional<Long> ingestedArtistId = ingestionStateRepository.findIngestedArtistId(artistId);
+                if (ingestedArtistId.isPresent()) {
+                    unknownArtistFilter.recordStored(artistId);
+                    return reader.apply(ingestedArtistId.get(), null);
                 }
 
-                ArtistEntity artistEntity = HelperMethods.buildArtistEntity(artistResponse);
+                ArtistEntity artistEntity = ingestArtistDiscography(artistId,
+                        RequestPriority.INTERACTIVE_DISCOGRAPHY, IngestionProgressListener.NOOP);
+                writeFreshnessHeaders(response, Duration.ZERO, DiscographyRefresher.Outcome.FRESH);
+                return reader.apply(artistEntity.getId(), artistEntity.getAlbumCount());
+            }));
 
-                DiscogsAlbumResponse albumResponse = discogsApiClient.getArtistDiscography(artistId);
+        } catch (ExternalApiException | NotFoundException | TooManyRequestsException | IngestionInProgressException
+                 | AdmissionRejectedException | IllegalArgumentException e ) {
+            throw e;
+        } catch (Exception e) {
+            throw new GeneralApplicationException("Unexpected error occurred while processing artist discography", e);
+        }
+    }
 
-                if (albumResponse == null || albumResponse.getReleases() == null) {
-                    throw new ExternalApiException("No valid album data returned from Discogs API");
-                }
+    //the refresh re-ingests through the rate-limited client at background priority, stored rows stay readable meanwhile
+    private void submitDiscographyRefresh(String artistId) {
+        ingestionJobService.submit(artistId, listener -> ingestionLeaseManager.runExclusive(artistId, () -> {
+            try {
+                ArtistEntity artistEntity = ingestArtistDiscography(artistId, RequestPriority.BACKGROUND, listener);
+                discographyRefresher.recordRefreshResult(artistId, true);
+                return artistEntity.getAlbumCount().intValue();
+            } catch (RuntimeException e) {
+                discographyRefresher.recordRefreshResult(artistId, false);
+                throw e;
+            }
+        }));
+    }
 
-                List<AlbumEntity> albumEntities = HelperMethods.getAlbumEntities(albumResponse, artistEntity);
+    private static void writeFreshnessHeaders(ServerHttpResponse response, Duration age,
+                                              DiscographyRefresher.Outcome outcome) {
+        response.getHeaders().set(DATA_AGE_HEADER, Long.toString(age.toSeconds()));
+        response.getHeaders().set(REFRESH_HEADER, outcome.headerValue());
+    }
 
-                artistEntity.setAlbums(albumEntities);
+    @Override
+    public IngestionJob submitDiscographyIngestion(String artistId) {
+        helperMethods.validateArtistId(artistId);
+        rejectKnownMissingArtist(artistId);
 
-                saveArtistAndAlbums(artistEntity);
+        return ingestionJobService.submit(artistId, listener -> ingestionLeaseManager.runExclusive(artistId, () -> {
+            Long artistDbId = ingestionStateRepository.findIngestedArtistId(artistId)
+                    .orElseGet(() -> ingestArtistDiscography(artistId, RequestPriority.BACKGROUND, listener).getId());
+            return (int) albumRepository.countByArtistId(artistDbId);
+        }));
+    }
 
-                Pageable pageable = sorted
-                        ? PageRequest.of(page - 1, perPage, Sort.by(Sort.Direction.ASC, "year"))
-                        : PageRequest.of(page - 1, perPage);
+    @Override
+    public IngestionJob reprocessReleaseArchive() {
+        if (!archiveReprocessor.isArchiveEnabled()) {
+            throw new ResourceNotFoundException("Release page archive is not enabled");
+        }
+        return ingestionJobService.submit(ARCHIVE_REPROCESSING_JOB, archiveReprocessor::reprocess);
+    }
 
-                albumPage = HelperMethods.buildAlbumPage(sorted, page, perPage, albumEntities, pageable);
-            }
+    @Override
+    public IngestionJob getIngestionJob(String jobId) {
+        return ingestionJobService.getJob(jobId);
+    }
 
-            return albumPage.map(albumEntity -> new Album(
-                    albumEntity.getTitle(),
-                    albumEntity.getYear(),
-                    albumEntity.getFormat(),
-                    albumEntity.getLabel()
-            ));
+    @Override
+    public Flux<IngestionJob> streamIngestionJob(String jobId) {
+        return ingestionJobService.streamJob(jobId);
+    }
 
-        } catch (ExternalApiException | NotFoundException | TooManyRequestsException | IllegalArgumentException e ) {
-            throw e;
-        } catch (Exception e) {
-            throw new GeneralApplicationException("Unexpected error occurred while processing artist discography", e);
-        }
+    @Override
+    public Flux<Album> streamArtistDiscography(String artistId) {
+        helperMethods.validateArtistId(artistId);
+        rejectKnownMissingArtist(artistId);
+
+        return Mono.fromCallable(() -> findArtistByDiscogsId(artistId)
+                        .filter(artist -> artist.getIngestedAt() != null)
+                        .orElseThrow(() -> new ResourceNotFoundException("Artist " + artistId + " is not stored")))
+                .flatMapMany(artist -> streamAlbumsFromDatabase(artist.getId()))
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    //pulls one keyset chunk per downstream demand, so memory stays bounded by the chunk size
+    private Flux<Album> streamAlbumsFromDatabase(Long artistDbId) {
+        return Flux.<List<AlbumRowDto>, Long>generate(() -> 0L, (afterId, sink) -> {
+                    List<AlbumRowDto> chunk = albumRepository.findAlbumRowsAfterId(
+                            artistDbId, afterId, PageRequest.of(0, STREAM_CHUNK_SIZE));
+                    if (chunk.isEmpty()) {
+                        sink.complete();
+                        return afterId;
+                    }
+                    sink.next(chunk);
+                    if (chunk.size() < STREAM_CHUNK_SIZE) {
+                        sink.complete();
+                    }
+                    return chunk.get(chunk.size() - 1).getId();
+                })
+                .concatMapIterable(chunk -> chunk, 1)
+                .map(row -> new Album(row.getTitle(), row.getYear(), row.getFormat(), row.getLabel()));
+    }
+
+    @Override
+    public List<ArtistRanking> topArtists(String by, int limit) {
+        return artistLeaderboard.top(ArtistLeaderboard.Metric.fromParameter(by), limit);
     }
 
     @Retryable(
@@ -136,15 +299,34 @@ public class DiscogsServiceImpl implements DiscogsService {
         }
 
         try {
-            List<ArtistEntity> artistEntities = artistRepository.findArtistsWithAlbums(discogsIds);
+            List<String> key = ArtistComparisonCache.keyOf(discogsIds);
+            List<ArtistComparison> cachedResult = artistComparisonCache.getSet(key);
+            if (cachedResult != null) {
+                return cachedResult;
+            }
 
-            if (artistEntities.size() < 2) {
-                List<String> foundDiscogsIds = artistEntities.stream()
-                        .map(ArtistEntity::getDiscogsId)
-                        .toList();
+            long readVersion = artistComparisonCache.currentVersion();
+            Map<String, ArtistComparison> comparisons = new HashMap<>(artistComparisonCache.getArtists(key));
+
+            List<String> uncachedIds = key.stream()
+                    .filter(id -> !comparisons.containsKey(id))
+                    .toList();
+
+            if (!uncachedIds.isEmpty()) {
+                List<ArtistEntity> artistEntities = artistRepository.findArtistsWithAlbums(uncachedIds);
+                List<ArtistWithAlbumsDTO> artists = HelperMethods.artistEntityToDto(artistEntities);
+
+                for (int i = 0; i < artistEntities.size(); i++) {
+                    String discogsId = artistEntities.get(i).getDiscogsId();
+                    ArtistComparison comparison = toArtistComparison(artists.get(i));
+                    comparisons.put(discogsId, comparison);
+                    artistComparisonCache.putArtist(discogsId, comparison, readVersion);
+                }
+            }
 
+            if (comparisons.size() < 2) {
                 List<String> missingDiscogsIds = discogsIds.stream()
-                        .filter(id -> !foundDiscogsIds.contains(id))
+                        .filter(id -> !comparisons.containsKey(id))
                         .toList();
 
                 throw new ResourceNotFoundException(
@@ -152,31 +334,83 @@ public class DiscogsServiceImpl implements DiscogsService {
                 );
             }
 
-            List<ArtistWithAlbumsDTO> artists = HelperMethods.artistEntityToDto(artistEntities);
+            List<ArtistComparison> result = key.stream()
+                    .map(comparisons::get)
+                    .filter(Objects::nonNull)
+                    .toList();
 
+            artistComparisonCache.putSet(key, result, readVersion);
 
-            return artists.stream()
-                    .map(artist -> {
-                        List<AlbumBasicDto> albums = artist.getAlbums();
+            return result;
 
-                        int numberOfReleases = albums.size();
+        } catch (ResourceNotFoundException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new GeneralApplicationException("Unexpected error occurred while comparing artists", e);
+        }
+    }
+    private static ArtistComparison toArtistComparison(ArtistWithAlbumsDTO artist) {
+        List<AlbumBasicDto> albums = artist.getAlbums();
 
-                        int firstYear = HelperMethods.getFirstYear(albums);
+        int numberOfReleases = albums.size();
 
-                        int lastYear = HelperMethods.getLastYear(albums);
+        int firstYear = HelperMethods.getFirstYear(albums);
 
-                        int activeYears = (firstYear > 0 && lastYear > 0) ? lastYear - firstYear + 1 : 0;
+        int lastYear = HelperMethods.getLastYear(albums);
 
-                        return new ArtistComparison(artist.getArtistName(), numberOfReleases, activeYears);
-                    })
-                    .toList();
+        int activeYears = HelperMethods.getActiveYears(firstYear, lastYear);
 
-        } catch (ResourceNotFoundException e) {
+        return new ArtistComparison(artist.getArtistName(), numberOfReleases, activeYears);
+    }
+
+    private void rejectKnownMissingArtist(String artistId) {
+        if (unknownArtistFilter.isKnownMissing(artistId)) {
+            throw new NotFoundException("Artist " + artistId + " was not found on Discogs");
+        }
+    }
+
+    //albums are written page by page and checkpointed, so a failed ingestion resumes from the missing pages
+    private ArtistEntity ingestArtistDiscography(String artistId, RequestPriority priority,
+                                                 IngestionProgressListener listener) {
+        DiscogsArtistResponse.Artist artistResponse;
+        try {
+            artistResponse = discogsApiClient.getArtistDetails(artistId, priority);
+        } catch (NotFoundException e) {
+            unknownArtistFilter.recordMissing(artistId);
             throw e;
-        } catch (Exception e) {
-            throw new GeneralApplicationException("Unexpected error occurred while comparing artists", e);
+        } catch (JsonProcessingException e) {
+            throw new ExternalApiException("Invalid artist data returned from Discogs API", e);
         }
+
+        if (artistResponse == null || artistResponse.getName() == null) {
+            throw new ExternalApiException("No valid artist data returned from Discogs API");
+        }
+
+        ArtistEntity artistEntity = HelperMethods.buildArtistEntity(artistResponse);
+        artistEntity.setId(discographyWriter.upsertArtist(artistEntity));
+
+        IngestionState state = ingestionStateRepository.begin(artistId, discogsApiClient.getReleasesPerPage());
+
+        try {
+            discogsApiClient.fetchArtistReleasePages(artistId, priority, listener, state.getFetchedPages(),
+                    (page, totalPages, response) -> {
+                        discographyWriter.upsertAlbums(artistEntity.getId(),
+                                HelperMethods.getAlbumEntities(response, artistEntity));
+                        ingestionStateRepository.recordPage(artistId, page, totalPages);
+                    });
+        } catch (JsonProcessingException e) {
+            ingestionStateRepository.recordError(artistId, e.getMessage());
+            throw new ExternalApiException("Invalid album data returned from Discogs API", e);
+        } catch (RuntimeException e) {
+            ingestionStateRepository.recordError(artistId, e.getMessage());
+            throw e;
+        }
+
+        completeIngestion(artistEntity);
+
+        return artistEntity;
     }
+
     @Retryable(
             value = {CannotGetJdbcConnectionException.class, DataAccessException.class},
             maxAttempts = 3,
@@ -191,12 +425,20 @@ public class DiscogsServiceImpl implements DiscogsService {
             maxAttempts = 3,
             backoff = @Backoff(delay = 2000)
     )
-    private Page<AlbumEntity> fetchAlbumsFromDatabase(Long artistDbId, boolean sorted, int page, int perPage) {
-        Pageable pageable = sorted
+    private Page<Album> fetchAlbumsFromDatabase(Long artistDbId, Long albumCount, Pageable pageable) {
+        List<Album> albums = albumRepository.findAlbumPageByArtistId(artistDbId, pageable);
+        //the count stored at ingestion avoids the COUNT(*), the query cache covers artists stored before it existed
+        return PageableExecutionUtils.getPage(albums, pageable,
+                () -> albumCount != null ? albumCount : albumRepository.countByArtistId(artistDbId));
+    }
+
+    private static Pageable discographyPageable(boolean sorted, int page, int perPage) {
+        if (page < 1 || perPage < 1) {
+            throw new IllegalArgumentException("Page and perPage must be greater than 0");
+        }
+        return sorted
                 ? PageRequest.of(page - 1, perPage, Sort.by(Sort.Direction.ASC, "year"))
                 : PageRequest.of(page - 1, perPage);
-
-        return albumRepository.findAlbumsByArtistId(artistDbId, pageable);
     }
 
     @Retryable(
@@ -204,7 +446,13 @@ public class DiscogsServiceImpl implements DiscogsService {
             maxAttempts = 3,
             backoff = @Backoff(delay = 2000)
     )
-    private void saveArtistAndAlbums(ArtistEntity artistEntity) {
-        artistRepository.save(artistEntity);
+    private void completeIngestion(ArtistEntity artistEntity) {
+        long albumCount = discographyWriter.countAlbums(artistEntity.getId());
+        discographyWriter.markIngested(artistEntity.getId(), albumCount);
+        ingestionStateRepository.complete(artistEntity.getDiscogsId());
+        artistEntity.setAlbumCount(albumCount);
+
+        eventPublisher.publishEvent(new ArtistStoredEvent(artistEntity.getId(), artistEntity.getDiscogsId(),
+                artistEntity.getName(), albumCount, discographyWriter.countActiveYears(artistEntity.getId())));
     }
 }
@@ -0,0 +1,103 @@
+package com.challenge.service;
+
+import com.challenge.exceptions.AdmissionRejectedException;
+import com.challenge.exceptions.GeneralApplicationException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Caps the number of interactive cold ingestions running at once, with a bounded queue in front of them.
+ * Callers that find the queue full, or wait in it for too long, are rejected with a Retry-After estimated
+ * from how fast the queue drains, which follows an exponentially weighted average of ingestion durations.
+ * <p>
+ * The slot is taken before the ingestion lease and before any database access, so queued callers hold neither
+ * a lease nor a pooled connection; only admitted ingestions borrow connections, one statement at a time.
+ * max-concurrent plus the background job threads therefore has to stay below the connection pool size, so warm
+ * reads always find a free connection; max-queued only bounds waiting request threads.
+ */
+@Component
+public class IngestionAdmissionController {
+
+    private static final double DURATION_SMOOTHING = 0.2;
+
+    private final int maxConcurrent;
+    private final int maxQueued;
+    private final Duration maxQueueWait;
+
+    private final Semaphore permits;
+    private final AtomicInteger queued = new AtomicInteger();
+
+    private volatile double averageDurationMillis;
+
+    public IngestionAdmissionController(@Value("${discogs.ingestion.admission.max-concurrent:4}") int maxConcurrent,
+                                        @Value("${discogs.ingestion.admission.max-queued:20}") int maxQueued,
+                                        @Value("${discogs.ingestion.admission.max-queue-wait:PT30S}") Duration maxQueueWait,
+                                        @Value("${discogs.ingestion.admission.initial-duration-estimate:PT5S}") Duration initialDurationEstimate) {
+        this.maxConcurrent = maxConcurrent;
+        this.maxQueued = maxQueued;
+        this.maxQueueWait = maxQueueWait;
+        this.permits = new Semaphore(maxConcurrent, true);
+        this.averageDurationMillis = initialDurationEstimate.toMillis();
+    }
+
+    public <T> T admit(Supplier<T> ingestion) {
+        try {
+            //the untimed tryAcquire barges even on a fair semaphore, a free slot belongs to the callers already queued
+            if (!permits.tryAcquire(0, TimeUnit.MILLISECONDS)) {
+                waitInQueue();
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new GeneralApplicationException("Interrupted while waiting for a discography ingestion slot", ex);
+        }
+
+        long startNanos = System.nanoTime();
+        try {
+            return ingestion.get();
+        } finally {
+            permits.release();
+            recordDuration(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos));
+        }
+    }
+
+    public int getQueued() {
+        return queued.get();
+    }
+
+    /**
+     * Seconds until the callers queued now, plus one more, would have been admitted.
+     */
+    public long retryAfterSeconds() {
+        double drainPerSecond = maxConcurrent * 1000.0 / Math.max(1.0, averageDurationMillis);
+        return Math.max(1, (long) Math.ceil((queued.get() + 1) / drainPerSecond));
+    }
+
+    private void waitInQueue() {
+        if (queued.incrementAndGet() > maxQueued) {
+            queued.decrementAndGet();
+            throw new AdmissionRejectedException("Too many discographies are being ingested, try again later",
+                    retryAfterSeconds());
+        }
+        try {
+            if (!permits.tryAcquire(maxQueueWait.toMillis(), TimeUnit.MILLISECONDS)) {
+                throw new AdmissionRejectedException("Timed out waiting for a discography ingestion slot",
+                        retryAfterSeconds());
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new GeneralApplicationException("Interrupted while waiting for a discography ingestion slot", ex);
+        } finally {
+            queued.decrementAndGet();
+        }
+    }
+
+    private synchronized void recordDuration(long durationMillis) {
+        averageDurationMillis = DURATION_SMOOTHING * durationMillis + (1 - DURATION_SMOOTHING) * averageDurationMillis;
+    }
+}
@@ -0,0 +1,177 @@
+package com.challenge.service;
+
+import com.challenge.api.core.IngestionJob;
+import com.challenge.api.core.IngestionJobStatus;
+import com.challenge.exceptions.ResourceNotFoundException;
+import com.challenge.exceptions.TooManyRequestsException;
+import com.challenge.logging.CorrelationId;
+import com.challenge.services.IngestionProgressListener;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.ToIntFunction;
+
+/**
+ * Runs discography ingestions in the background on a dedicated, bounded pool and keeps track of their progress.
+ */
+@Service
+public class IngestionJobService {
+
+    private static final Logger logger = LoggerFactory.getLogger(IngestionJobService.class);
+
+    private final ThreadPoolExecutor executor;
+    private final Duration retention;
+
+    private final Map<String, JobState> jobs = new ConcurrentHashMap<>();
+    private final Map<String, JobState> activeJobsByArtist = new ConcurrentHashMap<>();
+
+    public IngestionJobService(@Value("${discogs.ingestion.jobs.threads:2}") int threads,
+                               @Value("${discogs.ingestion.jobs.queue-capacity:100}") int queueCapacity,
+                               @Value("${discogs.ingestion.jobs.retention:PT1H}") Duration retention) {
+        this.retention = retention;
+        AtomicInteger threadCounter = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "ingestion-job-" + threadCounter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    /**
+     * Submits an ingestion for the given artist, or returns the job already running for it.
+     * The task receives a progress listener and returns the number of releases it stored.
+     */
+    public IngestionJob submit(String artistId, ToIntFunction<IngestionProgressListener> task) {
+        purgeExpiredJobs();
+
+        JobState newJob = new JobState(UUID.randomUUID().toString(), artistId);
+        JobState activeJob = activeJobsByArtist.putIfAbsent(artistId, newJob);
+        if (activeJob != null) {
+            return activeJob.snapshot();
+        }
+
+        jobs.put(newJob.jobId, newJob);
+        newJob.publish();
+        try {
+            //the job logs under the correlation id of the request that submitted it
+            executor.execute(CorrelationId.wrap(() -> run(newJob, task)));
+        } catch (RejectedExecutionException ex) {
+            jobs.remove(newJob.jobId);
+            activeJobsByArtist.remove(artistId, newJob);
+            throw new TooManyRequestsException("Ingestion queue is full, try again later");
+        }
+        return newJob.snapshot();
+    }
+
+    public IngestionJob getJob(String jobId) {
+        return findJob(jobId).snapshot();
+    }
+
+    public Flux<IngestionJob> streamJob(String jobId) {
+        return findJob(jobId).sink.asFlux();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private void run(JobState job, ToIntFunction<IngestionProgressListener> task) {
+        job.status = IngestionJobStatus.RUNNING;
+        job.publish();
+        try {
+            //the pages have been counted as they were stored, the task's total also covers pages an earlier
+            //attempt had already stored
+            job.releasesStored.set(task.applyAsInt(job));
+            job.status = IngestionJobStatus.COMPLETED;
+        } catch (Exception ex) {
+            logger.error("Ingestion job {} for artist {} failed: {}", job.jobId, job.artistId, ex.getMessage());
+            job.error = ex.getMessage();
+            job.status = IngestionJobStatus.FAILED;
+        } finally {
+            job.finishedAt = Instant.now();
+            activeJobsByArtist.remove(job.artistId, job);
+            job.publish();
+            job.complete();
+        }
+    }
+
+    private JobState findJob(String jobId) {
+        JobState job = jobs.get(jobId);
+        if (job == null) {
+            throw new ResourceNotFoundException("Ingestion job not found: " + jobId);
+        }
+        return job;
+    }
+
+    private void purgeExpiredJobs() {
+        Instant expiredBefore = Instant.now().minus(retention);
+        jobs.values().removeIf(job -> job.finishedAt != null && job.finishedAt.isBefore(expiredBefore));
+    }
+
+    private static final class JobState implements IngestionProgressListener {
+        private final String jobId;
+        private final String artistId;
+        private final AtomicInteger totalPages = new AtomicInteger();
+        private final AtomicInteger pagesFetched = new AtomicInteger();
+        private final AtomicInteger releasesStored = new AtomicInteger();
+        private final AtomicInteger rateLimitWaits = new AtomicInteger();
+        private final Sinks.Many<IngestionJob> sink = Sinks.many().replay().latest();
+
+        private volatile IngestionJobStatus status = IngestionJobStatus.QUEUED;
+        private volatile String error;
+        private volatile Instant finishedAt;
+
+        private JobState(String jobId, String artistId) {
+            this.jobId = jobId;
+            this.artistId = artistId;
+        }
+
+        @Override
+        public void onTotalPages(int pages) {
+            totalPages.set(pages);
+            publish();
+        }
+
+        @Override
+        public void onPageFetched(int releases) {
+            pagesFetched.incrementAndGet();
+            //pages are reported once they are stored
+            releasesStored.addAndGet(releases);
+            publish();
+        }
+
+        @Override
+        public void onRateLimitWait(long backoffMillis) {
+            rateLimitWaits.incrementAndGet();
+            publish();
+        }
+
+        private IngestionJob snapshot() {
+            return new IngestionJob(jobId, artistId, status, totalPages.get(), pagesFetched.get(),
+                    releasesStored.get(), rateLimitWaits.get(), error);
+        }
+
+        //progress is reported from several fetch threads, the sink only accepts serialized signals
+        private synchronized void publish() {
+            sink.tryEmitNext(snapshot());
+        }
+
+        private synchronized void complete() {
+            sink.tryEmitComplete();
+        }
+    }
+}
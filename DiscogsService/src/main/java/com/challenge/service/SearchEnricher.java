@@ -0,0 +1,127 @@
+package com.challenge.service;
+
+import com.challenge.api.core.Artist;
+import com.challenge.dtos.ArtistReleaseCountDto;
+import com.challenge.logging.CorrelationId;
+import com.challenge.persistence.ArtistRepository;
+import com.challenge.services.DiscogsApiClient;
+import com.challenge.services.RequestPriority;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Adds release counts to artist search results. Stored artists take their stored album count in a single
+ * query; the others are looked up on Discogs on a small shared pool. Whatever has not been resolved when the
+ * per-request time budget runs out is returned without a count.
+ */
+@Component
+public class SearchEnricher {
+
+    private static final Logger logger = LoggerFactory.getLogger(SearchEnricher.class);
+
+    private final DiscogsApiClient discogsApiClient;
+    private final ArtistRepository artistRepository;
+    private final Duration timeBudget;
+
+    private final ExecutorService executor;
+
+    private final Counter storedCounts;
+    private final Counter upstreamCounts;
+    private final Counter unresolved;
+
+    public SearchEnricher(DiscogsApiClient discogsApiClient, ArtistRepository artistRepository,
+                          @Value("${discogs.search.enrich.concurrency:4}") int concurrency,
+                          @Value("${discogs.search.enrich.queue-capacity:100}") int queueCapacity,
+                          @Value("${discogs.search.enrich.time-budget:PT2S}") Duration timeBudget,
+                          MeterRegistry meterRegistry) {
+        this.discogsApiClient = discogsApiClient;
+        this.artistRepository = artistRepository;
+        this.timeBudget = timeBudget;
+        AtomicInteger threadCounter = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(concurrency, concurrency, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "search-enrich-" + threadCounter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        this.storedCounts = Counter.builder("discogs.search.enrich").tag("source", "stored").register(meterRegistry);
+        this.upstreamCounts = Counter.builder("discogs.search.enrich").tag("source", "discogs").register(meterRegistry);
+        this.unresolved = Counter.builder("discogs.search.enrich").tag("source", "none").register(meterRegistry);
+    }
+
+    /**
+     * Returns copies of the artists with their release counts, the given artists may be cached and are not changed.
+     */
+    public List<Artist> enrich(List<Artist> artists) {
+        long deadline = System.nanoTime() + timeBudget.toNanos();
+
+        List<Artist> enriched = artists.stream().map(SearchEnricher::copyOf).toList();
+        List<String> discogsIds = enriched.stream().map(Artist::getDiscogsId).filter(Objects::nonNull).toList();
+        Map<String, Long> stored = new HashMap<>();
+        if (!discogsIds.isEmpty()) {
+            for (ArtistReleaseCountDto count : artistRepository.findStoredReleaseCounts(discogsIds)) {
+                stored.put(count.getDiscogsId(), count.getReleaseCount());
+            }
+        }
+
+        Map<Artist, Future<Long>> lookups = new LinkedHashMap<>();
+        for (Artist artist : enriched) {
+            Long storedCount = stored.get(artist.getDiscogsId());
+            if (storedCount != null) {
+                artist.setNumberOfReleases(storedCount);
+                storedCounts.increment();
+            } else if (artist.getDiscogsId() != null) {
+                try {
+                    lookups.put(artist, executor.submit(CorrelationId.wrap(() -> discogsApiClient.getArtistReleaseCount(
+                            artist.getDiscogsId(), RequestPriority.INTERACTIVE_SEARCH))));
+                } catch (RejectedExecutionException ex) {
+                    unresolved.increment();
+                }
+            }
+        }
+
+        for (Map.Entry<Artist, Future<Long>> lookup : lookups.entrySet()) {
+            Future<Long> future = lookup.getValue();
+            try {
+                long remainingNanos = Math.max(0, deadline - System.nanoTime());
+                lookup.getKey().setNumberOfReleases(future.get(remainingNanos, TimeUnit.NANOSECONDS));
+                upstreamCounts.increment();
+            } catch (TimeoutException ex) {
+                future.cancel(true);
+                unresolved.increment();
+            } catch (ExecutionException ex) {
+                logger.debug("Release count of artist {} not resolved: {}", lookup.getKey().getDiscogsId(),
+                        ex.getCause().getMessage());
+                unresolved.increment();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                future.cancel(true);
+                unresolved.increment();
+            }
+        }
+        return enriched;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private static Artist copyOf(Artist artist) {
+        Artist copy = new Artist();
+        copy.setDiscogsId(artist.getDiscogsId());
+        copy.setName(artist.getName());
+        return copy;
+    }
+}
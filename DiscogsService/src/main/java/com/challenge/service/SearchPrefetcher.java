@@ -0,0 +1,112 @@
+package com.challenge.service;
+
+import com.challenge.api.core.Artist;
+import com.challenge.cache.SearchResultCache;
+import com.challenge.helper.HelperMethods;
+import com.challenge.logging.CorrelationId;
+import com.challenge.model.DiscogsSearchArtistResponse;
+import com.challenge.services.DiscogsApiClient;
+import com.challenge.services.DiscogsRequestScheduler;
+import com.challenge.services.RequestPriority;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.*;
+
+/**
+ * Speculatively fetches the next page of an artist search into the {@link SearchResultCache} after a page
+ * has been served. Prefetches run on a single background thread at background priority and are skipped
+ * whenever the Discogs rate budget has no spare capacity.
+ */
+@Component
+public class SearchPrefetcher {
+
+    private static final Logger logger = LoggerFactory.getLogger(SearchPrefetcher.class);
+
+    private final DiscogsApiClient discogsApiClient;
+    private final DiscogsRequestScheduler requestScheduler;
+    private final SearchResultCache searchResultCache;
+    private final boolean enabled;
+
+    private final ExecutorService executor;
+    private final Set<String> inFlight = ConcurrentHashMap.newKeySet();
+
+    private final Counter fetched;
+    private final Counter skipped;
+
+    public SearchPrefetcher(DiscogsApiClient discogsApiClient, DiscogsRequestScheduler requestScheduler,
+                            SearchResultCache searchResultCache,
+                            @Value("${discogs.search.prefetch.enabled:true}") boolean enabled,
+                            @Value("${discogs.search.prefetch.queue-capacity:20}") int queueCapacity,
+                            MeterRegistry meterRegistry) {
+        this.discogsApiClient = discogsApiClient;
+        this.requestScheduler = requestScheduler;
+        this.searchResultCache = searchResultCache;
+        this.enabled = enabled;
+        this.executor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "search-prefetch");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        this.fetched = Counter.builder("discogs.search.prefetch").tag("outcome", "fetched").register(meterRegistry);
+        this.skipped = Counter.builder("discogs.search.prefetch").tag("outcome", "skipped").register(meterRegistry);
+    }
+
+    /**
+     * Schedules the page after {@code page}, unless it is already cached or being fetched.
+     */
+    public void prefetchNextPage(String artistName, int page, int perPage) {
+        int nextPage = page + 1;
+        if (!enabled || searchResultCache.contains(artistName, nextPage, perPage)) {
+            return;
+        }
+        String key = artistName.trim().toLowerCase(Locale.ROOT) + '|' + nextPage + '|' + perPage;
+        if (!inFlight.add(key)) {
+            return;
+        }
+        try {
+            executor.execute(CorrelationId.wrap(() -> {
+                try {
+                    prefetch(artistName, nextPage, perPage);
+                } finally {
+                    inFlight.remove(key);
+                }
+            }));
+        } catch (RejectedExecutionException ex) {
+            inFlight.remove(key);
+            skipped.increment();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private void prefetch(String artistName, int page, int perPage) {
+        //prefetching is only worth it with budget nobody else is waiting for
+        if (!requestScheduler.hasSpareCapacity()) {
+            skipped.increment();
+            return;
+        }
+        try {
+            DiscogsSearchArtistResponse response =
+                    discogsApiClient.searchArtist(artistName, page, perPage, RequestPriority.BACKGROUND);
+            List<Artist> artists = HelperMethods.toArtists(response);
+            searchResultCache.put(artistName, page, perPage, artists, true);
+            fetched.increment();
+        } catch (Exception ex) {
+            logger.debug("Prefetch of page {} for '{}' failed: {}", page, artistName, ex.getMessage());
+        }
+    }
+}
@@ -0,0 +1,6 @@
+CREATE TABLE rate_limit_ledger (
+    bucket VARCHAR(64) NOT NULL,
+    window_start BIGINT NOT NULL,
+    permits_used INT NOT NULL,
+    PRIMARY KEY (bucket, window_start)
+);
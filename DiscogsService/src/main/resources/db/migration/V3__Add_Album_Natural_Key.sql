@@ -0,0 +1,9 @@
+-- retried ingestions could store the same release twice, keep the oldest row before adding the key
+DELETE a1 FROM albums a1
+JOIN albums a2
+    ON a1.artist_id = a2.artist_id
+    AND a1.release_id = a2.release_id
+    AND a1.type = a2.type
+    AND a1.id > a2.id;
+
+CREATE UNIQUE INDEX albums_artist_release_type_uk ON albums (artist_id, release_id, type);
@@ -0,0 +1,19 @@
+-- NULL until every release page of the artist has been stored
+ALTER TABLE artist ADD COLUMN ingested_at TIMESTAMP NULL;
+
+UPDATE artist SET ingested_at = created_at;
+
+CREATE TABLE ingestion_state (
+    discogs_id BIGINT NOT NULL PRIMARY KEY,
+    per_page INT NOT NULL,
+    total_pages INT,
+    last_error VARCHAR(1024),
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP
+);
+
+CREATE TABLE ingestion_fetched_page (
+    discogs_id BIGINT NOT NULL,
+    page INT NOT NULL,
+    PRIMARY KEY (discogs_id, page),
+    FOREIGN KEY (discogs_id) REFERENCES ingestion_state(discogs_id) ON DELETE CASCADE
+);
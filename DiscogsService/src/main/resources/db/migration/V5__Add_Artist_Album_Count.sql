@@ -0,0 +1,5 @@
+-- number of stored albums, written when an ingestion completes so discography pages need no COUNT(*)
+ALTER TABLE artist ADD COLUMN album_count BIGINT NULL;
+
+UPDATE artist a SET album_count = (SELECT COUNT(*) FROM albums al WHERE al.artist_id = a.id)
+WHERE a.ingested_at IS NOT NULL;
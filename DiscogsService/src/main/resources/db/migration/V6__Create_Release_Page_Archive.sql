@@ -0,0 +1,9 @@
+-- gzip-compressed raw Discogs release pages, only written when discogs.archive.enabled is set
+CREATE TABLE release_page_archive (
+    discogs_id BIGINT NOT NULL,
+    per_page INT NOT NULL,
+    page INT NOT NULL,
+    body MEDIUMBLOB NOT NULL,
+    fetched_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+    PRIMARY KEY (discogs_id, per_page, page)
+);
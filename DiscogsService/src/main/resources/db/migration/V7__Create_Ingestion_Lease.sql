@@ -0,0 +1,6 @@
+-- cross-replica ingestion leases, a lease whose expiry has passed can be taken over
+CREATE TABLE ingestion_lease (
+    lock_name VARCHAR(191) NOT NULL PRIMARY KEY,
+    owner VARCHAR(64) NOT NULL,
+    expires_at BIGINT NOT NULL
+);
@@ -0,0 +1,9 @@
+-- lease expiries are computed from the database clock, so nodes with skewed clocks agree on when a lease expires;
+-- leases only live as long as an ingestion, so the table is recreated rather than converted
+DROP TABLE ingestion_lease;
+
+CREATE TABLE ingestion_lease (
+    lock_name VARCHAR(191) NOT NULL PRIMARY KEY,
+    owner VARCHAR(64) NOT NULL,
+    expires_at TIMESTAMP(3) NOT NULL
+);
@@ -0,0 +1,36 @@
+package com.challenge.http;
+
+import com.challenge.exceptions.AdmissionRejectedException;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GlobalControllerExceptionHandlerTest {
+
+    private final GlobalControllerExceptionHandler exceptionHandler = new GlobalControllerExceptionHandler();
+
+    @Test
+    void testAdmissionRejectionIsTooManyRequestsWithRetryAfter() {
+        MockServerWebExchange exchange = MockServerWebExchange.from(
+                MockServerHttpRequest.get("/discogs/artists/123/discography"));
+
+        ResponseEntity<HttpErrorInfo> response = exceptionHandler.handleAdmissionRejectedException(
+                new AdmissionRejectedException("Too many discographies are being ingested, try again later", 7),
+                exchange).block(Duration.ofSeconds(5));
+
+        assertNotNull(response);
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, response.getStatusCode());
+        assertEquals("7", response.getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+        assertNotNull(response.getBody());
+        assertEquals("/discogs/artists/123/discography", response.getBody().getPath());
+        assertEquals(429, response.getBody().getStatus());
+        assertEquals("Too many discographies are being ingested, try again later", response.getBody().getMessage());
+    }
+}
@@ -0,0 +1,112 @@
+package com.challenge.index;
+
+import com.challenge.api.core.ArtistRanking;
+import com.challenge.dtos.ArtistStatsDto;
+import com.challenge.events.ArtistStoredEvent;
+import com.challenge.persistence.ArtistRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ArtistLeaderboardTest {
+
+    @Mock
+    private ArtistRepository artistRepositoryMock;
+
+    private ArtistLeaderboard leaderboard;
+
+    @BeforeEach
+    void setUp() {
+        leaderboard = new ArtistLeaderboard(artistRepositoryMock, 2);
+        ArtistStatsDto beatles = new ArtistStatsDto("1", "The Beatles", 300L, 1962, 1970);
+        ArtistStatsDto beachBoys = new ArtistStatsDto("2", "The Beach Boys", 500L, 1961, 2012);
+        ArtistStatsDto bjork = new ArtistStatsDto("3", "Björk", 90L, 1977, 2022);
+        ArtistStatsDto unknown = new ArtistStatsDto("4", "Unknown", 0L, null, null);
+        //capacity 2 loads 4 candidates, in the order the database ranks them
+        when(artistRepositoryMock.findTopArtistStatsByReleases(PageRequest.of(0, 4)))
+                .thenReturn(List.of(beachBoys, beatles, bjork, unknown));
+        when(artistRepositoryMock.findTopArtistStatsByActiveYears(PageRequest.of(0, 4)))
+                .thenReturn(List.of(beachBoys, bjork, beatles, unknown));
+        leaderboard.rebuild();
+    }
+
+    @Test
+    void testTopRanksByEitherMetric() {
+        List<ArtistRanking> byReleases = leaderboard.top(ArtistLeaderboard.Metric.RELEASES, 2);
+        List<ArtistRanking> byActiveYears = leaderboard.top(ArtistLeaderboard.Metric.ACTIVE_YEARS, 2);
+
+        assertEquals(List.of("2", "1"), byReleases.stream().map(ArtistRanking::getDiscogsId).toList());
+        assertEquals(List.of("2", "3"), byActiveYears.stream().map(ArtistRanking::getDiscogsId).toList());
+        assertEquals(52, byActiveYears.get(0).getActiveYears());
+    }
+
+    @Test
+    void testStoredArtistEntersTheRanking() {
+        leaderboard.onArtistStored(new ArtistStoredEvent(5L, "5", "Frank Zappa", 400L, 30));
+
+        List<ArtistRanking> result = leaderboard.top(ArtistLeaderboard.Metric.RELEASES, 2);
+
+        assertEquals(List.of("2", "5"), result.stream().map(ArtistRanking::getDiscogsId).toList());
+    }
+
+    @Test
+    void testRankedArtistWhoseScoreDropsIsReplaced() {
+        leaderboard.put("2", "The Beach Boys", 10L, 52);
+
+        List<ArtistRanking> result = leaderboard.top(ArtistLeaderboard.Metric.RELEASES, 2);
+
+        assertEquals(List.of("1", "3"), result.stream().map(ArtistRanking::getDiscogsId).toList());
+    }
+
+    @Test
+    void testCandidatesAreLoadedAgainWhenTooManyDropOut() {
+        when(artistRepositoryMock.findTopArtistStatsByReleases(any())).thenReturn(
+                List.of(stats("1", 500L), stats("2", 400L), stats("3", 300L), stats("4", 200L)),
+                List.of(stats("4", 200L), stats("5", 100L), stats("1", 50L), stats("2", 40L)));
+        when(artistRepositoryMock.findTopArtistStatsByActiveYears(any())).thenReturn(List.of());
+        leaderboard.rebuild();
+
+        leaderboard.put("1", "Artist 1", 50L, 0);
+        leaderboard.put("2", "Artist 2", 40L, 0);
+        //artist 5 was never a candidate, only the database knows it ranks above the artists that dropped
+        leaderboard.put("3", "Artist 3", 30L, 0);
+
+        List<ArtistRanking> result = leaderboard.top(ArtistLeaderboard.Metric.RELEASES, 2);
+
+        assertEquals(List.of("4", "5"), result.stream().map(ArtistRanking::getDiscogsId).toList());
+        verify(artistRepositoryMock, times(3)).findTopArtistStatsByReleases(any());
+    }
+
+    @Test
+    void testArtistStoredWhileLoadingIsKept() {
+        when(artistRepositoryMock.findTopArtistStatsByReleases(any())).thenAnswer(invocation -> {
+            //stored after the query read its snapshot, before the snapshot is installed
+            leaderboard.onArtistStored(new ArtistStoredEvent(9L, "9", "Frank Zappa", 1000L, 30));
+            return List.of(stats("1", 300L));
+        });
+        when(artistRepositoryMock.findTopArtistStatsByActiveYears(any())).thenReturn(List.of());
+        leaderboard.rebuild();
+
+        List<ArtistRanking> result = leaderboard.top(ArtistLeaderboard.Metric.RELEASES, 2);
+
+        assertEquals(List.of("9", "1"), result.stream().map(ArtistRanking::getDiscogsId).toList());
+    }
+
+    @Test
+    void testLimitAboveCapacityIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> leaderboard.top(ArtistLeaderboard.Metric.RELEASES, 3));
+    }
+
+    private static ArtistStatsDto stats(String discogsId, long releaseCount) {
+        return new ArtistStatsDto(discogsId, "Artist " + discogsId, releaseCount, null, null);
+    }
+}
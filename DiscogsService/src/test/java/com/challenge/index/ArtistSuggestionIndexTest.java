@@ -0,0 +1,122 @@
+package com.challenge.index;
+
+import com.challenge.api.core.ArtistSuggestion;
+import com.challenge.dtos.ArtistReleaseCountDto;
+import com.challenge.persistence.ArtistRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ArtistSuggestionIndexTest {
+
+    @Mock
+    private ArtistRepository artistRepositoryMock;
+
+    private ArtistSuggestionIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new ArtistSuggestionIndex(artistRepositoryMock, 2, 4, 100);
+    }
+
+    @Test
+    void testSuggestRanksByReleaseCount() {
+        when(artistRepositoryMock.findArtistReleaseCounts()).thenReturn(List.of(
+                new ArtistReleaseCountDto("1", "The Beatles", 300L),
+                new ArtistReleaseCountDto("2", "The Beach Boys", 500L),
+                new ArtistReleaseCountDto("3", "The Beat (2)", 40L),
+                new ArtistReleaseCountDto("4", "Björk", 90L)
+        ));
+        index.rebuild();
+
+        List<ArtistSuggestion> result = index.suggest("THE  bea", 10);
+
+        assertEquals(3, result.size());
+        assertEquals("2", result.get(0).getDiscogsId());
+        assertEquals("1", result.get(1).getDiscogsId());
+        assertEquals("3", result.get(2).getDiscogsId());
+        assertEquals("4", index.suggest("bjo", 10).get(0).getDiscogsId());
+    }
+
+    @Test
+    void testSuggestFiltersPrefixesLongerThanMaxDepth() {
+        when(artistRepositoryMock.findArtistReleaseCounts()).thenReturn(List.of(
+                new ArtistReleaseCountDto("1", "The Beatles", 300L),
+                new ArtistReleaseCountDto("2", "The Beach Boys", 500L),
+                new ArtistReleaseCountDto("3", "The Beat (2)", 40L)
+        ));
+        index.rebuild();
+
+        List<ArtistSuggestion> result = index.suggest("the beat", 10);
+
+        assertEquals(2, result.size());
+        assertEquals("1", result.get(0).getDiscogsId());
+        assertEquals("3", result.get(1).getDiscogsId());
+    }
+
+    @Test
+    void testPutUpdatesExistingArtist() {
+        index.put("1", "Nirvana", 10);
+        index.put("2", "Nina Simone", 20);
+        index.put("1", "Nirvana", 50);
+
+        List<ArtistSuggestion> result = index.suggest("ni", 10);
+
+        assertEquals(2, index.size());
+        assertEquals("1", result.get(0).getDiscogsId());
+        assertEquals(50, result.get(0).getNumberOfReleases());
+    }
+
+    @Test
+    void testArtistMovingDownRestoresCandidateCutOffEarlier() {
+        index.put("1", "Alpha", 100);
+        index.put("2", "Alps", 90);
+        index.put("3", "Alto", 80);
+
+        index.put("1", "Alpha", 1);
+
+        List<ArtistSuggestion> result = index.suggest("al", 10);
+
+        assertEquals(List.of("2", "3"), result.stream().map(ArtistSuggestion::getDiscogsId).toList());
+    }
+
+    @Test
+    void testRefillIncludesNamesEndingAboveMaxDepth() {
+        index.put("1", "Ab", 10);
+        index.put("2", "Abcd", 20);
+        index.put("3", "Abce", 30);
+
+        index.put("3", "Abce", 0);
+
+        List<ArtistSuggestion> result = index.suggest("a", 10);
+
+        assertEquals(List.of("2", "1"), result.stream().map(ArtistSuggestion::getDiscogsId).toList());
+    }
+
+    @Test
+    void testRenamedArtistLeavesItsOldPrefix() {
+        index.put("1", "Abba", 10);
+        index.put("1", "Zappa", 10);
+
+        assertTrue(index.suggest("ab", 10).isEmpty());
+        assertEquals("1", index.suggest("za", 10).get(0).getDiscogsId());
+    }
+
+    @Test
+    void testLimitIsCappedAtTopKAboveMaxDepth() {
+        index.put("1", "Nirvana", 10);
+        index.put("2", "Nina Simone", 20);
+        index.put("3", "Nine Inch Nails", 30);
+
+        assertEquals(2, index.suggest("ni", 10).size());
+        assertEquals(3, index.suggest("nin", 10).size() + index.suggest("nir", 10).size());
+    }
+}
@@ -0,0 +1,99 @@
+package com.challenge.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.core.spi.FilterReply;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RateLimitingTurboFilterTest {
+
+    private static final String FORMAT = "Fetched page {}";
+
+    private final AtomicLong now = new AtomicLong(1_000_000);
+
+    private RateLimitingTurboFilter filter;
+    private Logger logger;
+
+    @BeforeEach
+    void setUp() {
+        LoggerContext context = new LoggerContext();
+        logger = context.getLogger("com.challenge.Test");
+        logger.setLevel(Level.DEBUG);
+
+        filter = new RateLimitingTurboFilter(now::get);
+        filter.setContext(context);
+        filter.setMaxEvents(3);
+        filter.setPeriodMillis(1000);
+        filter.start();
+    }
+
+    @Test
+    void testEventsAboveTheLimitAreDropped() {
+        for (int i = 0; i < 3; i++) {
+            assertEquals(FilterReply.NEUTRAL, decide(Level.INFO, FORMAT));
+        }
+        assertEquals(FilterReply.DENY, decide(Level.INFO, FORMAT));
+        assertEquals(FilterReply.DENY, decide(Level.DEBUG, FORMAT));
+
+        //every pattern has its own limit
+        assertEquals(FilterReply.NEUTRAL, decide(Level.INFO, "Fetched artist {}"));
+    }
+
+    @Test
+    void testTheLimitResetsWithTheNextPeriod() {
+        for (int i = 0; i < 3; i++) {
+            decide(Level.INFO, FORMAT);
+        }
+        assertEquals(FilterReply.DENY, decide(Level.INFO, FORMAT));
+
+        now.addAndGet(999);
+        assertEquals(FilterReply.DENY, decide(Level.INFO, FORMAT));
+
+        now.addAndGet(1);
+        for (int i = 0; i < 3; i++) {
+            assertEquals(FilterReply.NEUTRAL, decide(Level.INFO, FORMAT));
+        }
+        assertEquals(FilterReply.DENY, decide(Level.INFO, FORMAT));
+    }
+
+    @Test
+    void testWarningsAreNeverDropped() {
+        for (int i = 0; i < 10; i++) {
+            assertEquals(FilterReply.NEUTRAL, decide(Level.WARN, FORMAT));
+            assertEquals(FilterReply.NEUTRAL, decide(Level.ERROR, FORMAT));
+        }
+        //and they do not use up the limit of the pattern
+        assertEquals(FilterReply.NEUTRAL, decide(Level.INFO, FORMAT));
+    }
+
+    @Test
+    void testUnthrottledEventsAreNeverDropped() {
+        for (int i = 0; i < 10; i++) {
+            assertEquals(FilterReply.NEUTRAL,
+                    filter.decide(LogMarkers.UNTHROTTLED, logger, Level.INFO, FORMAT, null, null));
+        }
+        for (int i = 0; i < 3; i++) {
+            assertEquals(FilterReply.NEUTRAL, decide(Level.INFO, FORMAT));
+        }
+        assertEquals(FilterReply.DENY, decide(Level.INFO, FORMAT));
+    }
+
+    @Test
+    void testDisabledEventsDoNotUseUpTheLimit() {
+        logger.setLevel(Level.INFO);
+        for (int i = 0; i < 10; i++) {
+            assertEquals(FilterReply.NEUTRAL, decide(Level.DEBUG, FORMAT));
+        }
+        assertEquals(FilterReply.NEUTRAL, decide(Level.INFO, FORMAT));
+    }
+
+    private FilterReply decide(Level level, String format) {
+        return filter.decide(null, logger, level, format, null, null);
+    }
+}
@@ -0,0 +1,92 @@
+package com.challenge.persistence;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DiscographyWriterTest {
+
+    private static final int BATCH_SIZE = 3;
+
+    private StatementCountingDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+    private DiscographyWriter writer;
+    private Long artistDbId;
+
+    @BeforeEach
+    void setUp() {
+        DriverManagerDataSource target = new DriverManagerDataSource("jdbc:h2:mem:writer-" + System.nanoTime()
+                + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;NON_KEYWORDS=YEAR,VALUE;DB_CLOSE_DELAY=-1", "sa", "");
+        new ResourceDatabasePopulator(new ClassPathResource("db/h2-schema.sql")).execute(target);
+        dataSource = new StatementCountingDataSource(target);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        writer = new DiscographyWriter(jdbcTemplate, BATCH_SIZE);
+        artistDbId = writer.upsertArtist(new ArtistEntity("42", "Writer Artist", null));
+    }
+
+    @Test
+    void testUpsertArtistUpdatesTheExistingRow() {
+        Long again = writer.upsertArtist(new ArtistEntity("42", "Renamed Artist", "profile"));
+
+        assertEquals(artistDbId, again);
+        assertEquals(1, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM artist", Integer.class));
+        assertEquals("Renamed Artist",
+                jdbcTemplate.queryForObject("SELECT name FROM artist WHERE id = ?", String.class, artistDbId));
+    }
+
+    @Test
+    void testUpsertingTheSameAlbumsTwiceUpdatesInsteadOfDuplicating() {
+        writer.upsertAlbums(artistDbId, List.of(
+                album("First", 1990, "LP", 1L, "release"),
+                album("Second", 1991, "LP", 2L, "release"),
+                album("Second master", 1991, "LP", 2L, "master")));
+
+        writer.upsertAlbums(artistDbId, List.of(
+                album("First remastered", 2005, "CD", 1L, "release"),
+                album("Second", 1991, "LP", 2L, "release"),
+                album("Second master", 1991, "LP", 2L, "master")));
+
+        assertEquals(3, writer.countAlbums(artistDbId));
+        Map<String, Object> first = jdbcTemplate.queryForMap(
+                "SELECT title, year, format FROM albums WHERE artist_id = ? AND release_id = 1 AND type = 'release'",
+                artistDbId);
+        assertEquals("First remastered", first.get("title"));
+        assertEquals(2005, ((Number) first.get("year")).intValue());
+        assertEquals("CD", first.get("format"));
+    }
+
+    @Test
+    void testAlbumsAreWrittenInStatementsOfAtMostTheBatchSize() {
+        List<AlbumEntity> albums = IntStream.rangeClosed(1, 7)
+                .mapToObj(i -> album("Album " + i, 2000 + i, "LP", (long) i, "release"))
+                .toList();
+
+        dataSource.reset();
+        int statements = writer.upsertAlbums(artistDbId, albums);
+
+        assertEquals(3, statements);
+        assertEquals(3, dataSource.getExecutedStatements());
+        assertEquals(7, writer.countAlbums(artistDbId));
+    }
+
+    @Test
+    void testNoAlbumsExecuteNoStatement() {
+        dataSource.reset();
+
+        assertEquals(0, writer.upsertAlbums(artistDbId, List.of()));
+        assertEquals(0, dataSource.getExecutedStatements());
+    }
+
+    private static AlbumEntity album(String title, int year, String format, Long releaseId, String type) {
+        return new AlbumEntity(null, title, year, format, "Label", type, releaseId);
+    }
+}
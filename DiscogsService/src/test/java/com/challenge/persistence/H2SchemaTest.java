@@ -0,0 +1,108 @@
+package com.challenge.persistence;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The tests on H2 use db/h2-schema.sql because H2 cannot run every Flyway migration. This compares it with the
+ * schema the migrations leave, so a migration that is not copied into h2-schema.sql fails here.
+ */
+class H2SchemaTest {
+
+    private static final Pattern MIGRATION_VERSION = Pattern.compile("V(\\d+)__.*\\.sql");
+
+    //V3's multi-table DELETE only removes duplicate rows, there is nothing to remove from an empty database
+    private static final Pattern DATA_FIX = Pattern.compile("(?ms)^DELETE\\b.*?;");
+
+    @Test
+    void testH2SchemaMatchesTheMigrations() throws IOException {
+        ResourceDatabasePopulator migrations = new ResourceDatabasePopulator();
+        for (Resource migration : migrations()) {
+            String script = migration.getContentAsString(StandardCharsets.UTF_8);
+            migrations.addScript(new ByteArrayResource(DATA_FIX.matcher(script).replaceAll("")
+                    .getBytes(StandardCharsets.UTF_8), migration.getFilename()));
+        }
+        JdbcTemplate migrated = newDatabase("migrated", migrations);
+        JdbcTemplate copied = newDatabase("copied", new ResourceDatabasePopulator(
+                new ClassPathResource("db/h2-schema.sql")));
+
+        assertFalse(columns(migrated).isEmpty());
+        assertEquals(columns(migrated), columns(copied));
+        assertEquals(indexes(migrated), indexes(copied));
+        assertEquals(foreignKeys(migrated), foreignKeys(copied));
+    }
+
+    private static List<Resource> migrations() throws IOException {
+        Resource[] migrations = new PathMatchingResourcePatternResolver()
+                .getResources("classpath:db/migration/V*__*.sql");
+        return Arrays.stream(migrations).sorted(Comparator.comparingInt(H2SchemaTest::versionOf)).toList();
+    }
+
+    private static int versionOf(Resource migration) {
+        Matcher version = MIGRATION_VERSION.matcher(migration.getFilename());
+        assertTrue(version.matches(), "Unexpected migration name " + migration.getFilename());
+        return Integer.parseInt(version.group(1));
+    }
+
+    private static JdbcTemplate newDatabase(String name, ResourceDatabasePopulator populator) {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource("jdbc:h2:mem:" + name + "-" + System.nanoTime()
+                + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;NON_KEYWORDS=YEAR,VALUE;DB_CLOSE_DELAY=-1", "sa", "");
+        populator.execute(dataSource);
+        return new JdbcTemplate(dataSource);
+    }
+
+    private static List<String> columns(JdbcTemplate jdbcTemplate) {
+        return jdbcTemplate.query("SELECT table_name, column_name, data_type, character_maximum_length, is_nullable, "
+                        + "column_default FROM information_schema.columns WHERE table_schema = CURRENT_SCHEMA "
+                        + "ORDER BY table_name, ordinal_position",
+                (rs, rowNum) -> rs.getString(1) + "." + rs.getString(2) + " " + rs.getString(3) + "(" + rs.getLong(4)
+                        + ") nullable=" + rs.getString(5) + " default=" + rs.getString(6));
+    }
+
+    //index names are generated for keys and constraints, so indexes are told apart by their columns
+    private static List<String> indexes(JdbcTemplate jdbcTemplate) {
+        Map<String, StringJoiner> columnsByIndex = new LinkedHashMap<>();
+        jdbcTemplate.query("SELECT i.table_name, i.index_name, i.index_type_name, c.column_name "
+                        + "FROM information_schema.indexes i JOIN information_schema.index_columns c "
+                        + "ON c.index_schema = i.index_schema AND c.index_name = i.index_name "
+                        + "WHERE i.table_schema = CURRENT_SCHEMA ORDER BY i.index_name, c.ordinal_position",
+                (RowCallbackHandler) rs -> {
+                    String table = rs.getString(1) + " " + rs.getString(3) + " (";
+                    columnsByIndex.computeIfAbsent(rs.getString(2), index -> new StringJoiner(", ", table, ")"))
+                            .add(rs.getString(4));
+                });
+        return columnsByIndex.values().stream().map(StringJoiner::toString).sorted().toList();
+    }
+
+    private static List<String> foreignKeys(JdbcTemplate jdbcTemplate) {
+        return jdbcTemplate.query("SELECT k.table_name, k.column_name, r.delete_rule "
+                        + "FROM information_schema.referential_constraints r "
+                        + "JOIN information_schema.key_column_usage k ON k.constraint_schema = r.constraint_schema "
+                        + "AND k.constraint_name = r.constraint_name "
+                        + "WHERE r.constraint_schema = CURRENT_SCHEMA",
+                (rs, rowNum) -> rs.getString(1) + "." + rs.getString(2) + " on delete " + rs.getString(3))
+                .stream()
+                .sorted()
+                .toList();
+    }
+}
@@ -0,0 +1,113 @@
+package com.challenge.persistence;
+
+import com.challenge.exceptions.IngestionInProgressException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+
+import java.time.Duration;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Two managers sharing one in-memory database stand in for two replicas sharing MySQL.
+ */
+class IngestionLeaseManagerTest {
+
+    private JdbcTemplate jdbcTemplate;
+    private IngestionLeaseManager nodeA;
+    private IngestionLeaseManager nodeB;
+
+    @BeforeEach
+    void setUp() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:lease-" + System.nanoTime() + ";MODE=MySQL;DB_CLOSE_DELAY=-1", "sa", "");
+        new ResourceDatabasePopulator(new ClassPathResource("db/migration/V7__Create_Ingestion_Lease.sql"),
+                new ClassPathResource("db/migration/V8__Ingestion_Lease_Database_Time.sql")).execute(dataSource);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        nodeA = newManager(Duration.ofSeconds(5));
+        nodeB = newManager(Duration.ofMillis(200));
+    }
+
+    @AfterEach
+    void tearDown() {
+        nodeA.shutdown();
+        nodeB.shutdown();
+    }
+
+    @Test
+    void testOtherNodeTimesOutWhileLeaseIsHeld() throws Exception {
+        CountDownLatch leaseTaken = new CountDownLatch(1);
+        CountDownLatch finish = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<String> holder = executor.submit(() -> nodeA.runExclusive("1", () -> {
+                leaseTaken.countDown();
+                await(finish);
+                return "done";
+            }));
+            assertTrue(leaseTaken.await(5, TimeUnit.SECONDS));
+
+            assertThrows(IngestionInProgressException.class, () -> nodeB.runExclusive("1", () -> "never"));
+            //other artists are not affected
+            assertEquals("other", nodeB.runExclusive("2", () -> "other"));
+
+            finish.countDown();
+            assertEquals("done", holder.get(5, TimeUnit.SECONDS));
+            assertEquals("after", nodeB.runExclusive("1", () -> "after"));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void testExpiredLeaseIsTakenOver() {
+        insertLease("dead-node", -1);
+
+        assertEquals("taken", nodeB.runExclusive("1", () -> "taken"));
+    }
+
+    @Test
+    void testLiveLeaseOfAnotherNodeIsLeftAlone() {
+        insertLease("live-node", 30);
+
+        assertThrows(IngestionInProgressException.class, () -> nodeB.runExclusive("1", () -> "never"));
+        assertEquals("live-node", jdbcTemplate.queryForObject(
+                "SELECT owner FROM ingestion_lease WHERE lock_name = ?", String.class, "discogs-ingest:1"));
+    }
+
+    @Test
+    void testLeaseIsReleasedWhenTheActionFails() {
+        assertThrows(IllegalStateException.class, () -> nodeA.runExclusive("1", () -> {
+            throw new IllegalStateException("ingestion failed");
+        }));
+
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM ingestion_lease", Integer.class));
+        assertEquals("next", nodeB.runExclusive("1", () -> "next"));
+    }
+
+    private IngestionLeaseManager newManager(Duration waitTimeout) {
+        return new IngestionLeaseManager(jdbcTemplate, true, waitTimeout, Duration.ofSeconds(30),
+                Duration.ofMillis(20));
+    }
+
+    //expiries are relative to the database clock, like the ones the managers write
+    private void insertLease(String owner, int expiresInSeconds) {
+        jdbcTemplate.update("INSERT INTO ingestion_lease (lock_name, owner, expires_at) "
+                + "VALUES (?, ?, TIMESTAMPADD(SECOND, ?, CURRENT_TIMESTAMP(3)))",
+                "discogs-ingest:1", owner, expiresInSeconds);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
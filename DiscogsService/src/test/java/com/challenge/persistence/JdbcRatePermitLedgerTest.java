@@ -0,0 +1,102 @@
+package com.challenge.persistence;
+
+import com.challenge.services.RatePermitLedger;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Two ledgers sharing one in-memory database stand in for two replicas sharing MySQL.
+ */
+class JdbcRatePermitLedgerTest {
+
+    private static final int PERMITS_PER_WINDOW = 60;
+
+    private final Clock clock = Clock.fixed(Instant.parse("2024-01-01T10:00:30Z"), ZoneOffset.UTC);
+
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:ledger-" + System.nanoTime() + ";MODE=MySQL;DB_CLOSE_DELAY=-1", "sa", "");
+        new ResourceDatabasePopulator(new ClassPathResource("db/migration/V2__Create_Rate_Limit_Ledger.sql"))
+                .execute(dataSource);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    @Test
+    void testInstancesNeverLeaseMoreThanTheWindowLimit() throws Exception {
+        JdbcRatePermitLedger instanceA = newLedger();
+        JdbcRatePermitLedger instanceB = newLedger();
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<Integer>> results = new ArrayList<>();
+        try {
+            for (int i = 0; i < 8; i++) {
+                RatePermitLedger ledger = i % 2 == 0 ? instanceA : instanceB;
+                results.add(executor.submit(() -> leaseUntilExhausted(ledger)));
+            }
+
+            int totalGranted = 0;
+            for (Future<Integer> result : results) {
+                totalGranted += result.get(30, TimeUnit.SECONDS);
+            }
+            assertEquals(PERMITS_PER_WINDOW, totalGranted);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(0, instanceA.lease(5).getPermits());
+        assertEquals(0, instanceB.lease(5).getPermits());
+    }
+
+    @Test
+    void testNewWindowStartsWithFullBudget() {
+        JdbcRatePermitLedger ledger = newLedger();
+        assertEquals(PERMITS_PER_WINDOW, leaseUntilExhausted(ledger));
+
+        JdbcRatePermitLedger nextMinute = new JdbcRatePermitLedger(jdbcTemplate, "discogs", PERMITS_PER_WINDOW,
+                Duration.ofMinutes(1), Clock.offset(clock, Duration.ofMinutes(1)));
+
+        RatePermitLedger.Lease lease = nextMinute.lease(5);
+        assertEquals(5, lease.getPermits());
+        assertEquals(ledger.currentWindow() + 1, lease.getWindow());
+        assertEquals(30_000, ledger.millisUntilNextWindow());
+    }
+
+    @Test
+    void testLastLeaseOfTheWindowGetsWhatIsLeft() {
+        JdbcRatePermitLedger ledger = newLedger();
+        assertEquals(PERMITS_PER_WINDOW - 2, ledger.lease(PERMITS_PER_WINDOW - 2).getPermits());
+
+        assertEquals(2, ledger.lease(5).getPermits());
+        assertEquals(0, ledger.lease(5).getPermits());
+    }
+
+    private JdbcRatePermitLedger newLedger() {
+        return new JdbcRatePermitLedger(jdbcTemplate, "discogs", PERMITS_PER_WINDOW, Duration.ofMinutes(1), clock);
+    }
+
+    private static int leaseUntilExhausted(RatePermitLedger ledger) {
+        int granted = 0;
+        //an empty lease only ever means the window is used up, losing a race to the other instance is not one
+        for (int permits = ledger.lease(5).getPermits(); permits > 0; permits = ledger.lease(5).getPermits()) {
+            granted += permits;
+        }
+        return granted;
+    }
+}
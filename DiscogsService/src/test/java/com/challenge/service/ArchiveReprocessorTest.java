@@ -0,0 +1,139 @@
+package com.challenge.service;
+
+import com.challenge.events.ArtistStoredEvent;
+import com.challenge.exceptions.ResourceNotFoundException;
+import com.challenge.persistence.DiscographyWriter;
+import com.challenge.persistence.IngestionLeaseManager;
+import com.challenge.persistence.JdbcReleasePageArchive;
+import com.challenge.services.IngestionProgressListener;
+import com.challenge.services.MemoryBudgetManager;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.StringJoiner;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Reprocesses archives written the way ingestions write them, on an in-memory database.
+ */
+@ExtendWith(MockitoExtension.class)
+class ArchiveReprocessorTest {
+
+    private static final String ARTIST_ID = "42";
+
+    @Mock
+    private ObjectProvider<JdbcReleasePageArchive> archiveProvider;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private JdbcTemplate jdbcTemplate;
+    private JdbcReleasePageArchive archive;
+    private IngestionLeaseManager ingestionLeaseManager;
+    private ArchiveReprocessor archiveReprocessor;
+    private Long artistDbId;
+
+    @BeforeEach
+    void setUp() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource("jdbc:h2:mem:archive-" + System.nanoTime()
+                + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;NON_KEYWORDS=YEAR,VALUE;DB_CLOSE_DELAY=-1", "sa", "");
+        new ResourceDatabasePopulator(new ClassPathResource("db/h2-schema.sql")).execute(dataSource);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        archive = new JdbcReleasePageArchive(jdbcTemplate);
+        ingestionLeaseManager = new IngestionLeaseManager(null, false, Duration.ofSeconds(5), Duration.ofMinutes(1),
+                Duration.ofMillis(500));
+        archiveReprocessor = new ArchiveReprocessor(archiveProvider, new DiscographyWriter(jdbcTemplate, 500),
+                ingestionLeaseManager, eventPublisher, new ObjectMapper(),
+                new MemoryBudgetManager(1024 * 1024, 0.3, 4096, Duration.ofSeconds(5), new SimpleMeterRegistry()), 2);
+
+        jdbcTemplate.update("INSERT INTO artist (discogs_id, name, ingested_at) VALUES (?, ?, CURRENT_TIMESTAMP)",
+                ARTIST_ID, "Archived Artist");
+        artistDbId = jdbcTemplate.queryForObject("SELECT id FROM artist WHERE discogs_id = ?", Long.class, ARTIST_ID);
+    }
+
+    @AfterEach
+    void tearDown() {
+        ingestionLeaseManager.shutdown();
+    }
+
+    @Test
+    void testReprocessKeepsOnlyThePagesOfTheLastCompletedFetch() {
+        when(archiveProvider.getIfAvailable()).thenReturn(archive);
+        //an earlier fetch with two releases per page, which still listed release 99
+        archive.store(ARTIST_ID, 1, 2, releasesBody(1, 2));
+        archive.store(ARTIST_ID, 2, 2, releasesBody(3, 4));
+        archive.store(ARTIST_ID, 3, 2, releasesBody(5, 99));
+        //an even earlier fetch at five per page had a third page
+        archive.store(ARTIST_ID, 3, 5, releasesBody(98, 99));
+        //the last fetch at five per page, which completed with two pages
+        archive.store(ARTIST_ID, 1, 5, releasesBody(1, 2, 3, 4, 5));
+        archive.store(ARTIST_ID, 2, 5, releasesBody(6, 7));
+        archive.retainOnly(ARTIST_ID, 5, 2);
+
+        int albumsStored = archiveReprocessor.reprocess(IngestionProgressListener.NOOP);
+
+        assertEquals(7, albumsStored);
+        assertEquals(2, archive.countPages());
+        assertEquals(LongStream.rangeClosed(1, 7).boxed().toList(), jdbcTemplate.queryForList(
+                "SELECT release_id FROM albums WHERE artist_id = ? ORDER BY release_id", Long.class, artistDbId));
+        assertEquals(7L, jdbcTemplate.queryForObject("SELECT album_count FROM artist WHERE id = ?", Long.class,
+                artistDbId));
+        verify(eventPublisher).publishEvent(any(ArtistStoredEvent.class));
+    }
+
+    @Test
+    void testReprocessReplacesAlbumsThatAreNoLongerArchived() {
+        when(archiveProvider.getIfAvailable()).thenReturn(archive);
+        jdbcTemplate.update("INSERT INTO albums (artist_id, title, year, release_id, type) VALUES (?, ?, ?, ?, ?)",
+                artistDbId, "Deleted upstream", 1999, 500L, "release");
+        archive.store(ARTIST_ID, 1, 5, releasesBody(1, 2));
+        archive.retainOnly(ARTIST_ID, 5, 1);
+
+        assertEquals(2, archiveReprocessor.reprocess(IngestionProgressListener.NOOP));
+        assertEquals(List.of(1L, 2L), jdbcTemplate.queryForList(
+                "SELECT release_id FROM albums WHERE artist_id = ? ORDER BY release_id", Long.class, artistDbId));
+    }
+
+    @Test
+    void testArtistWithUnfinishedIngestionIsNotReprocessed() {
+        when(archiveProvider.getIfAvailable()).thenReturn(archive);
+        archive.store(ARTIST_ID, 1, 5, releasesBody(1, 2, 3, 4, 5));
+        jdbcTemplate.update("INSERT INTO ingestion_state (discogs_id, per_page) VALUES (?, ?)", ARTIST_ID, 5);
+
+        assertEquals(0, archiveReprocessor.reprocess(IngestionProgressListener.NOOP));
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM albums", Integer.class));
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    void testReprocessWithoutArchiveIsNotFound() {
+        assertFalse(archiveReprocessor.isArchiveEnabled());
+        assertThrows(ResourceNotFoundException.class, () -> archiveReprocessor.reprocess(IngestionProgressListener.NOOP));
+    }
+
+    private static String releasesBody(long... releaseIds) {
+        StringJoiner releases = new StringJoiner(",", "{\"releases\":[", "]}");
+        for (long releaseId : releaseIds) {
+            releases.add("{\"id\":" + releaseId + ",\"title\":\"Release " + releaseId + "\",\"year\":2000"
+                    + ",\"type\":\"release\",\"format\":\"CD\",\"label\":\"Archive Records\"}");
+        }
+        return releases.toString();
+    }
+}
@@ -0,0 +1,159 @@
+package com.challenge.service;
+
+import com.challenge.exceptions.ExternalApiException;
+import com.challenge.model.DiscogsArtistResponse;
+import com.challenge.services.AdaptiveConcurrencyLimiter;
+import com.challenge.services.DiscogsApiClient;
+import com.challenge.services.DiscogsRequestScheduler;
+import com.challenge.services.IngestionProgressListener;
+import com.challenge.services.MemoryBudgetManager;
+import com.challenge.services.RatePermitLedger;
+import com.challenge.services.RawResponseCache;
+import com.challenge.services.RawResponseCache.Endpoint;
+import com.challenge.services.ReleasePageArchive;
+import com.challenge.services.RequestPriority;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Runs the client against the local Discogs stub, with a real scheduler, limiter, memory budget and cache.
+ */
+@ExtendWith(MockitoExtension.class)
+class DiscogsApiClientTest {
+
+    private static final DiscogsStub DISCOGS = DiscogsStub.start();
+
+    private static final String ARTIST_ID = "77";
+    private static final int PER_PAGE = 100;
+    //250 releases at 100 per page
+    private static final int PAGES = 3;
+
+    @Mock
+    private ObjectProvider<RatePermitLedger> ledgerProvider;
+
+    @Mock
+    private ObjectProvider<ReleasePageArchive> archiveProvider;
+
+    @Mock
+    private ReleasePageArchive archive;
+
+    private DiscogsApiClient discogsApiClient;
+
+    @BeforeEach
+    void setUp() {
+        DISCOGS.reset();
+        when(archiveProvider.getIfAvailable()).thenReturn(archive);
+        discogsApiClient = newClient();
+    }
+
+    @AfterEach
+    void tearDown() {
+        discogsApiClient.shutdown();
+    }
+
+    @AfterAll
+    static void stopDiscogs() {
+        DISCOGS.close();
+    }
+
+    @Test
+    void testFetchedReleasePagesAreArchivedAndStalePagesPruned() throws Exception {
+        Set<Integer> handledPages = new ConcurrentSkipListSet<>();
+
+        int totalPages = discogsApiClient.fetchArtistReleasePages(ARTIST_ID, RequestPriority.BACKGROUND,
+                IngestionProgressListener.NOOP, Set.of(), (page, pages, response) -> handledPages.add(page));
+
+        assertEquals(PAGES, totalPages);
+        assertEquals(Set.of(1, 2, 3), handledPages);
+        for (int page = 1; page <= PAGES; page++) {
+            verify(archive).store(eq(ARTIST_ID), eq(page), eq(PER_PAGE), anyString());
+        }
+        verify(archive).retainOnly(ARTIST_ID, PER_PAGE, PAGES);
+    }
+
+    @Test
+    void testReleasePagesServedFromTheCacheAreNotArchivedAgain() throws Exception {
+        discogsApiClient.fetchArtistReleasePages(ARTIST_ID, RequestPriority.BACKGROUND,
+                IngestionProgressListener.NOOP, Set.of(), (page, pages, response) -> { });
+        discogsApiClient.fetchArtistReleasePages(ARTIST_ID, RequestPriority.BACKGROUND,
+                IngestionProgressListener.NOOP, Set.of(), (page, pages, response) -> { });
+
+        assertEquals(PAGES, DISCOGS.calls(Endpoint.RELEASES));
+        verify(archive, times(PAGES)).store(eq(ARTIST_ID), anyInt(), eq(PER_PAGE), anyString());
+        verify(archive, times(2)).retainOnly(ARTIST_ID, PER_PAGE, PAGES);
+    }
+
+    @Test
+    void testFailedFetchDoesNotPruneTheArchive() {
+        assertThrows(RuntimeException.class, () -> discogsApiClient.fetchArtistReleasePages(ARTIST_ID,
+                RequestPriority.BACKGROUND, IngestionProgressListener.NOOP, Set.of(), (page, pages, response) -> {
+                    throw new IllegalStateException("page " + page + " could not be stored");
+                }));
+
+        verify(archive, never()).retainOnly(anyString(), anyInt(), anyInt());
+    }
+
+    @Test
+    void testReleasePageWithoutReleaseDataIsRejected() {
+        DISCOGS.setArtistsWithoutReleaseData(ARTIST_ID);
+
+        ExternalApiException exception = assertThrows(ExternalApiException.class, () ->
+                discogsApiClient.fetchArtistReleasePages(ARTIST_ID, RequestPriority.BACKGROUND,
+                        IngestionProgressListener.NOOP, Set.of(), (page, pages, response) -> { }));
+
+        assertEquals("No valid album data returned from Discogs API", exception.getMessage());
+        verify(archive, never()).retainOnly(anyString(), anyInt(), anyInt());
+    }
+
+    @Test
+    void testStaleArtistIsRevalidatedWithItsEtag() throws Exception {
+        //artist bodies go stale at once and are kept for revalidation
+        MeterRegistry meterRegistry = new SimpleMeterRegistry();
+        discogsApiClient.shutdown();
+        discogsApiClient = newClient(new RawResponseCache(1024 * 1024, Duration.ofMinutes(5), Duration.ZERO,
+                Duration.ofMinutes(15), Duration.ofHours(24), meterRegistry));
+
+        DiscogsArtistResponse.Artist downloaded = discogsApiClient.getArtistDetails(ARTIST_ID);
+        DiscogsArtistResponse.Artist revalidated = discogsApiClient.getArtistDetails(ARTIST_ID);
+
+        assertEquals("Artist " + ARTIST_ID, downloaded.getName());
+        assertEquals(downloaded.getName(), revalidated.getName());
+        assertEquals(2, DISCOGS.calls(Endpoint.ARTIST));
+        assertEquals(1, DISCOGS.notModifiedResponses());
+        assertEquals(1.0, meterRegistry.get("discogs.client.response-cache").tag("result", "revalidated")
+                .counter().count());
+    }
+
+    private DiscogsApiClient newClient() {
+        return newClient(new RawResponseCache(1024 * 1024, Duration.ofMinutes(5), Duration.ofHours(1),
+                Duration.ofMinutes(15), Duration.ofHours(24), new SimpleMeterRegistry()));
+    }
+
+    private DiscogsApiClient newClient(RawResponseCache responseCache) {
+        MeterRegistry meterRegistry = new SimpleMeterRegistry();
+        return new DiscogsApiClient(WebClient.builder().baseUrl(DISCOGS.baseUrl()).build(), "test-token",
+                "/database/search", "/artists/%s/releases", "/artists/%s", PER_PAGE, new ObjectMapper(),
+                new DiscogsRequestScheduler(60_000, 1000, 5, ledgerProvider, meterRegistry),
+                new AdaptiveConcurrencyLimiter(5, 1, 20, 2.0, meterRegistry),
+                new MemoryBudgetManager(64L * 1024 * 1024, 0.3, 4096, Duration.ofSeconds(5), meterRegistry),
+                responseCache,
+                archiveProvider);
+    }
+}
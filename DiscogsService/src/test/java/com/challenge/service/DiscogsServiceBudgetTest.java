@@ -0,0 +1,227 @@
+package com.challenge.service;
+
+import com.challenge.api.core.Album;
+import com.challenge.api.core.Artist;
+import com.challenge.api.core.ArtistComparison;
+import com.challenge.api.core.DiscogsService;
+import com.challenge.persistence.StatementCountingDataSource;
+import com.challenge.services.RawResponseCache.Endpoint;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.data.domain.Page;
+import org.springframework.mock.http.server.reactive.MockServerHttpResponse;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import javax.sql.DataSource;
+import java.lang.management.ManagementFactory;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Hard budgets for the upstream calls, database statements and allocations of each operation, run against a
+ * local Discogs stub and an in-memory database. A change that adds a page fetch, or a query per artist or
+ * album, fails here even when the functional tests still pass.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE, properties = {
+        "spring.datasource.url=jdbc:h2:mem:budget;MODE=MySQL;DATABASE_TO_LOWER=TRUE;NON_KEYWORDS=YEAR,VALUE;"
+                + "DB_CLOSE_DELAY=-1",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.flyway.enabled=false",
+        "spring.sql.init.mode=always",
+        "spring.sql.init.schema-locations=classpath:db/h2-schema.sql",
+        "spring.jpa.hibernate.ddl-auto=none",
+        "discogs.api.rate-limit.requests-per-minute=60000",
+        "discogs.api.rate-limit.burst=1000",
+        "discogs.ingestion.lease.distributed=false",
+        "discogs.search.prefetch.enabled=false"
+})
+class DiscogsServiceBudgetTest {
+
+    private static final DiscogsStub DISCOGS = DiscogsStub.start();
+
+    //250 releases at the default 100 per page
+    private static final int RELEASE_PAGES = 3;
+
+    //artist lookup, lease re-check, artist upsert, checkpoint, completion and the page read
+    private static final int INGESTION_FIXED_STATEMENTS = 13;
+    //album upsert and checkpoint of each release page
+    private static final int INGESTION_STATEMENTS_PER_PAGE = 3;
+    //artist lookup by natural id and the page read
+    private static final int WARM_READ_STATEMENTS = 3;
+    private static final int COMPARE_STATEMENTS = 2;
+    private static final long ALLOCATED_BYTES_PER_RELEASE = 64 * 1024;
+
+    @Autowired
+    private DiscogsService discogsService;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @DynamicPropertySource
+    static void discogsProperties(DynamicPropertyRegistry registry) {
+        registry.add("discogs.api.base-url", DISCOGS::baseUrl);
+    }
+
+    @AfterAll
+    static void stopDiscogs() {
+        DISCOGS.close();
+    }
+
+    @Test
+    void testColdDiscographyReadStaysWithinBudget() throws Exception {
+        AtomicReference<Page<Album>> result = new AtomicReference<>();
+        Usage usage = measure(() -> result.set(readDiscography("1001")));
+
+        assertEquals(DiscogsStub.RELEASES_PER_ARTIST, result.get().getTotalElements());
+        assertEquals(1, DISCOGS.calls(Endpoint.ARTIST));
+        assertEquals(RELEASE_PAGES, DISCOGS.calls(Endpoint.RELEASES));
+        assertEquals(1 + RELEASE_PAGES, usage.upstreamCalls());
+        assertWithinBudget(INGESTION_FIXED_STATEMENTS + INGESTION_STATEMENTS_PER_PAGE * RELEASE_PAGES,
+                usage.statements(), "statements of a cold discography read");
+    }
+
+    @Test
+    void testWarmDiscographyReadSkipsDiscogs() throws Exception {
+        readDiscography("1002");
+
+        Usage usage = measure(() -> readDiscography("1002"));
+
+        assertEquals(0, usage.upstreamCalls());
+        assertWithinBudget(WARM_READ_STATEMENTS, usage.statements(), "statements of a warm discography read");
+    }
+
+    @Test
+    void testIngestionAllocationsPerRelease() throws Exception {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        assumeTrue(threads.isThreadAllocatedMemorySupported() && threads.isThreadAllocatedMemoryEnabled());
+
+        //the first ingestion also pays for class loading and warming up the pools
+        readDiscography("1003");
+
+        Usage usage = measure(() -> readDiscography("1004"));
+
+        assertWithinBudget(ALLOCATED_BYTES_PER_RELEASE, usage.allocatedBytes() / DiscogsStub.RELEASES_PER_ARTIST,
+                "bytes allocated per ingested release");
+    }
+
+    @Test
+    void testSearchStaysWithinBudget() throws Exception {
+        DISCOGS.setSearchResults("2001", "2002", "2003");
+
+        Usage cold = measure(() -> discogsService.searchArtists("budget search", 1, 3, false));
+        Usage cached = measure(() -> discogsService.searchArtists("budget search", 1, 3, false));
+
+        assertEquals(1, cold.upstreamCalls());
+        assertEquals(0, cold.statements());
+        assertEquals(0, cached.upstreamCalls());
+        assertEquals(0, cached.statements());
+    }
+
+    @Test
+    void testEnrichedSearchLooksUpOnlyArtistsNotStored() throws Exception {
+        readDiscography("3001");
+        DISCOGS.setSearchResults("3001", "3002", "3003");
+
+        AtomicReference<List<Artist>> result = new AtomicReference<>();
+        Usage usage = measure(() -> result.set(discogsService.searchArtists("enriched search", 1, 3, true)));
+
+        for (Artist artist : result.get()) {
+            assertEquals(DiscogsStub.RELEASES_PER_ARTIST, artist.getNumberOfReleases());
+        }
+        assertEquals(1, DISCOGS.calls(Endpoint.SEARCH));
+        assertEquals(2, DISCOGS.calls(Endpoint.RELEASES));
+        assertEquals(3, usage.upstreamCalls());
+        assertEquals(1, usage.statements());
+    }
+
+    @Test
+    void testCompareStaysWithinBudget() throws Exception {
+        readDiscography("4001");
+        readDiscography("4002");
+
+        AtomicReference<List<ArtistComparison>> result = new AtomicReference<>();
+        Usage cold = measure(() -> result.set(discogsService.compareArtists(List.of("4001", "4002"))));
+        Usage cached = measure(() -> discogsService.compareArtists(List.of("4001", "4002")));
+
+        assertEquals(2, result.get().size());
+        assertEquals(DiscogsStub.RELEASES_PER_ARTIST, result.get().get(0).getNumberOfReleases());
+        assertEquals(0, cold.upstreamCalls());
+        assertWithinBudget(COMPARE_STATEMENTS, cold.statements(), "statements of a comparison");
+        assertEquals(0, cached.upstreamCalls());
+        assertEquals(0, cached.statements());
+    }
+
+    private Page<Album> readDiscography(String artistId) {
+        return discogsService.getAndStoreArtistDiscography(artistId, false, 1, 10, new MockServerHttpResponse());
+    }
+
+    private Usage measure(Operation operation) throws Exception {
+        StatementCountingDataSource statements = (StatementCountingDataSource) dataSource;
+        DISCOGS.reset();
+        statements.reset();
+        Map<Long, Long> allocatedBefore = allocatedBytesByThread();
+
+        operation.run();
+
+        long allocatedBytes = 0;
+        for (Map.Entry<Long, Long> allocated : allocatedBytesByThread().entrySet()) {
+            allocatedBytes += allocated.getValue() - allocatedBefore.getOrDefault(allocated.getKey(), 0L);
+        }
+        return new Usage(DISCOGS.totalCalls(), statements.getExecutedStatements(), allocatedBytes);
+    }
+
+    //threads started during the operation count from zero, the stub's own threads are left out
+    private static Map<Long, Long> allocatedBytesByThread() {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        Map<Long, Long> allocated = new HashMap<>();
+        for (Thread thread : Thread.getAllStackTraces().keySet()) {
+            if (!thread.getName().startsWith(DiscogsStub.THREAD_PREFIX)) {
+                long bytes = threads.getThreadAllocatedBytes(thread.threadId());
+                if (bytes >= 0) {
+                    allocated.put(thread.threadId(), bytes);
+                }
+            }
+        }
+        return allocated;
+    }
+
+    private static void assertWithinBudget(long budget, long actual, String what) {
+        assertTrue(actual <= budget, what + " over budget: " + actual + " > " + budget);
+    }
+
+    @FunctionalInterface
+    private interface Operation {
+        void run() throws Exception;
+    }
+
+    private record Usage(int upstreamCalls, long statements, long allocatedBytes) {
+    }
+
+    @TestConfiguration
+    static class StatementCountingConfiguration {
+
+        @Bean
+        static BeanPostProcessor statementCountingDataSourcePostProcessor() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    return bean instanceof DataSource target && !(bean instanceof StatementCountingDataSource)
+                            ? new StatementCountingDataSource(target)
+                            : bean;
+                }
+            };
+        }
+    }
+}
@@ -3,10 +3,21 @@ package com.challenge.service;
 import com.challenge.api.core.Album;
 import com.challenge.api.core.Artist;
 import com.challenge.api.core.ArtistComparison;
+import com.challenge.api.core.ArtistSuggestion;
+import com.challenge.api.core.IngestionJob;
+import com.challenge.api.core.IngestionJobStatus;
+import com.challenge.cache.ArtistComparisonCache;
+import com.challenge.cache.SearchResultCache;
+import com.challenge.dtos.AlbumRowDto;
+import com.challenge.events.ArtistStoredEvent;
+import com.challenge.exceptions.AdmissionRejectedException;
 import com.challenge.exceptions.ExternalApiException;
 import com.challenge.exceptions.GeneralApplicationException;
+import com.challenge.exceptions.NotFoundException;
 import com.challenge.exceptions.ResourceNotFoundException;
 import com.challenge.helper.HelperMethods;
+import com.challenge.index.ArtistSuggestionIndex;
+import com.challenge.index.UnknownArtistFilter;
 import com.challenge.model.DiscogsAlbumResponse;
 import com.challenge.model.DiscogsArtistResponse;
 import com.challenge.model.DiscogsSearchArtistResponse;
@@ -14,22 +25,39 @@ import com.challenge.persistence.AlbumEntity;
 import com.challenge.persistence.AlbumRepository;
 import com.challenge.persistence.ArtistEntity;
 import com.challenge.persistence.ArtistRepository;
+import com.challenge.persistence.DiscographyWriter;
+import com.challenge.persistence.IngestionState;
+import com.challenge.persistence.IngestionStateRepository;
+import com.challenge.persistence.IngestionLeaseManager;
 import com.challenge.services.DiscogsApiClient;
+import com.challenge.services.IngestionProgressListener;
+import com.challenge.services.ReleasePageHandler;
+import com.challenge.services.RequestPriority;
 import com.fasterxml.jackson.core.JsonProcessingException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.data.domain.Sort;
+import org.springframework.mock.http.server.reactive.MockServerHttpResponse;
 
+import java.time.Duration;
+import java.time.Instant;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.ToIntFunction;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -49,6 +77,51 @@ class DiscogsServiceImplTest {
     @Mock
     private HelperMethods helperMethodsMock;
 
+    @Mock
+    private ArtistSuggestionIndex artistSuggestionIndexMock;
+
+    @Mock
+    private IngestionJobService ingestionJobServiceMock;
+
+    @Spy
+    private IngestionLeaseManager ingestionLeaseManager = new IngestionLeaseManager(null, false, Duration.ofSeconds(5),
+            Duration.ofMinutes(1), Duration.ofMillis(500));
+
+    @Mock
+    private DiscographyWriter discographyWriterMock;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisherMock;
+
+    @Mock
+    private IngestionStateRepository ingestionStateRepositoryMock;
+
+    @Mock
+    private SearchResultCache searchResultCacheMock;
+
+    @Mock
+    private SearchPrefetcher searchPrefetcherMock;
+
+    @Mock
+    private SearchEnricher searchEnricherMock;
+
+    @Mock
+    private ArchiveReprocessor archiveReprocessorMock;
+
+    @Spy
+    private ArtistComparisonCache artistComparisonCache = new ArtistComparisonCache(100, 100, Duration.ofMinutes(10));
+
+    @Spy
+    private IngestionAdmissionController admissionController =
+            new IngestionAdmissionController(1, 0, Duration.ofSeconds(1), Duration.ofSeconds(5));
+
+    @Spy
+    private DiscographyRefresher discographyRefresher =
+            new DiscographyRefresher(Duration.ofDays(7), Duration.ofMinutes(15), new SimpleMeterRegistry());
+
+    @Spy
+    private UnknownArtistFilter unknownArtistFilter = new UnknownArtistFilter(Duration.ofMinutes(10), 100);
+
     @InjectMocks
     private DiscogsServiceImpl discogsService;
 
@@ -84,7 +157,7 @@ class DiscogsServiceImplTest {
         when(discogsApiClientMock.searchArtist(ARTIST_NAME, page, perPage)).thenReturn(mockResponse);
 
 
-        List<Artist> result = discogsService.searchArtists(ARTIST_NAME, page, perPage);
+        List<Artist> result = discogsService.searchArtists(ARTIST_NAME, page, perPage, false);
 
 
         assertEquals(2, result.size());
@@ -93,6 +166,40 @@ class DiscogsServiceImplTest {
         verify(discogsApiClientMock, times(1)).searchArtist(ARTIST_NAME, page, perPage);
     }
 
+    @Test
+    void testSearchArtistsServedFromCachePrefetchesNextPage() throws JsonProcessingException {
+        Artist artist = new Artist();
+        artist.setDiscogsId("1");
+        artist.setName(ARTIST_NAME);
+
+        when(searchResultCacheMock.get(ARTIST_NAME, 2, 1)).thenReturn(List.of(artist));
+
+        List<Artist> result = discogsService.searchArtists(ARTIST_NAME, 2, 1, false);
+
+        assertEquals(1, result.size());
+        verify(searchPrefetcherMock, times(1)).prefetchNextPage(ARTIST_NAME, 2, 1);
+        verifyNoInteractions(discogsApiClientMock);
+    }
+
+    @Test
+    void testSearchArtistsEnrichesCachedPageWhenRequested() throws JsonProcessingException {
+        Artist artist = new Artist();
+        artist.setDiscogsId("1");
+        artist.setName(ARTIST_NAME);
+        Artist enrichedArtist = new Artist();
+        enrichedArtist.setDiscogsId("1");
+        enrichedArtist.setName(ARTIST_NAME);
+        enrichedArtist.setNumberOfReleases(42L);
+
+        when(searchResultCacheMock.get(ARTIST_NAME, 1, 10)).thenReturn(List.of(artist));
+        when(searchEnricherMock.enrich(List.of(artist))).thenReturn(List.of(enrichedArtist));
+
+        List<Artist> result = discogsService.searchArtists(ARTIST_NAME, 1, 10, true);
+
+        assertEquals(42L, result.get(0).getNumberOfReleases());
+        verifyNoInteractions(discogsApiClientMock);
+    }
+
     @Test
     void testGetAndStoreArtistDiscographyNewArtist() throws JsonProcessingException {
         String artistId = "123";
@@ -122,21 +229,71 @@ class DiscogsServiceImplTest {
         DiscogsAlbumResponse mockAlbumResponse = new DiscogsAlbumResponse();
         mockAlbumResponse.setReleases(List.of(release1, release2));
 
+        Album album1 = new Album(ALBUM_NAME_1, 1965, FORMAT, LABEL_1);
+        Album album2 = new Album(ALBUM_NAME_2, 1970, FORMAT, null);
+
         doNothing().when(helperMethodsMock).validateArtistId(artistId);
         when(artistRepositoryMock.findByDiscogsId(artistId)).thenReturn(Optional.empty());
-        when(discogsApiClientMock.getArtistDetails(artistId)).thenReturn(mockArtist);
-        when(discogsApiClientMock.getArtistDiscography(artistId)).thenReturn(mockAlbumResponse);
-
-        ArgumentCaptor<ArtistEntity> artistEntityCaptor = ArgumentCaptor.forClass(ArtistEntity.class);
-
-        Page<Album> result = discogsService.getAndStoreArtistDiscography(artistId, sorted, page, perPage);
+        when(discogsApiClientMock.getArtistDetails(artistId, RequestPriority.INTERACTIVE_DISCOGRAPHY)).thenReturn(mockArtist);
+        when(discogsApiClientMock.getReleasesPerPage()).thenReturn(100);
+        when(discographyWriterMock.upsertArtist(any(ArtistEntity.class))).thenReturn(1L);
+        when(ingestionStateRepositoryMock.begin(artistId, 100)).thenReturn(new IngestionState(artistId, 100, null, Set.of(), null));
+        when(discogsApiClientMock.fetchArtistReleasePages(eq(artistId), eq(RequestPriority.INTERACTIVE_DISCOGRAPHY),
+                any(IngestionProgressListener.class), eq(Set.of()), any(ReleasePageHandler.class)))
+                .thenAnswer(invocation -> {
+                    invocation.<ReleasePageHandler>getArgument(4).onPage(1, 1, mockAlbumResponse);
+                    return 1;
+                });
+        when(discographyWriterMock.countAlbums(1L)).thenReturn(2L);
+        when(albumRepositoryMock.findAlbumPageByArtistId(1L, PageRequest.of(0, 10, Sort.by("year")))).thenReturn(List.of(album1, album2));
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<AlbumEntity>> albumsCaptor = ArgumentCaptor.forClass(List.class);
+
+        Page<Album> result = discogsService.getAndStoreArtistDiscography(artistId, sorted, page, perPage, new MockServerHttpResponse());
 
         assertEquals(2, result.getContent().size());
         assertEquals(ALBUM_NAME_1, result.getContent().get(0).getTitle());
 
-        verify(artistRepositoryMock, times(1)).save(artistEntityCaptor.capture());
-        assertEquals(ARTIST_NAME, artistEntityCaptor.getValue().getName());
-        assertEquals(2, artistEntityCaptor.getValue().getAlbums().size());
+        verify(discographyWriterMock, times(1)).upsertAlbums(eq(1L), albumsCaptor.capture());
+        assertEquals(2, albumsCaptor.getValue().size());
+        verify(ingestionStateRepositoryMock, times(1)).recordPage(artistId, 1, 1);
+        verify(discographyWriterMock, times(1)).markIngested(1L, 2L);
+        verify(ingestionStateRepositoryMock, times(1)).complete(artistId);
+
+        ArgumentCaptor<ArtistStoredEvent> eventCaptor = ArgumentCaptor.forClass(ArtistStoredEvent.class);
+        verify(eventPublisherMock, times(1)).publishEvent(eventCaptor.capture());
+        assertEquals("123", eventCaptor.getValue().getDiscogsId());
+        assertEquals(2, eventCaptor.getValue().getReleaseCount());
+    }
+
+    @Test
+    void testSuggestArtistsDelegatesToIndex() {
+        List<ArtistSuggestion> suggestions = List.of(new ArtistSuggestion("1", ARTIST_NAME, 20));
+        when(artistSuggestionIndexMock.suggest("beat", 5)).thenReturn(suggestions);
+
+        List<ArtistSuggestion> result = discogsService.suggestArtists("beat", 5);
+
+        assertEquals(suggestions, result);
+        verifyNoInteractions(discogsApiClientMock);
+    }
+
+    @Test
+    void testGetAndStoreArtistDiscographyStoredWhileWaitingForLease() {
+        String artistId = "123";
+
+        Album album1 = new Album(ALBUM_NAME_1, 2000, FORMAT, LABEL_1);
+        when(artistRepositoryMock.findByDiscogsId(artistId)).thenReturn(Optional.empty());
+        when(ingestionStateRepositoryMock.findIngestedArtistId(artistId)).thenReturn(Optional.of(1L));
+        when(albumRepositoryMock.findAlbumPageByArtistId(1L, PageRequest.of(0, 10))).thenReturn(List.of(album1));
+
+        Page<Album> result = discogsService.getAndStoreArtistDiscography(artistId, false, 1, 10, new MockServerHttpResponse());
+
+        assertEquals(1, result.getTotalElements());
+        assertEquals(ALBUM_NAME_1, result.getContent().get(0).getTitle());
+        verify(ingestionLeaseManager, times(1)).runExclusive(eq(artistId), any());
+        verifyNoInteractions(discogsApiClientMock);
+        verify(discographyWriterMock, never()).upsertArtist(any());
     }
 
     @Test
@@ -180,6 +337,36 @@ class DiscogsServiceImplTest {
         verify(artistRepositoryMock, times(1)).findArtistsWithAlbums(discogsIds);
     }
 
+    @Test
+    void testCompareArtistsReusesCachedArtistsAcrossSets() {
+        ArtistEntity artist1 = new ArtistEntity("123", "Artist 1", null);
+        artist1.setAlbums(List.of(new AlbumEntity(artist1, ALBUM_NAME_1, 2000, FORMAT, LABEL_1, TYPE, 1L)));
+        ArtistEntity artist2 = new ArtistEntity("456", "Artist 2", null);
+        artist2.setAlbums(List.of(new AlbumEntity(artist2, ALBUM_NAME_1, 1990, FORMAT, LABEL_1, TYPE, 2L)));
+        ArtistEntity artist3 = new ArtistEntity("789", "Artist 3", null);
+        artist3.setAlbums(List.of(new AlbumEntity(artist3, ALBUM_NAME_2, 1980, FORMAT, LABEL_1, TYPE, 3L)));
+
+        when(artistRepositoryMock.findArtistsWithAlbums(List.of("123", "456"))).thenReturn(List.of(artist1, artist2));
+        when(artistRepositoryMock.findArtistsWithAlbums(List.of("789"))).thenReturn(List.of(artist3));
+
+        discogsService.compareArtists(List.of("456", "123"));
+        List<ArtistComparison> sameSet = discogsService.compareArtists(List.of("123", "456", "123"));
+        List<ArtistComparison> overlappingSet = discogsService.compareArtists(List.of("789", "456"));
+
+        assertEquals("Artist 1", sameSet.get(0).getArtistName());
+        assertEquals("Artist 2", overlappingSet.get(0).getArtistName());
+        assertEquals("Artist 3", overlappingSet.get(1).getArtistName());
+        verify(artistRepositoryMock, times(1)).findArtistsWithAlbums(List.of("123", "456"));
+        verify(artistRepositoryMock, times(1)).findArtistsWithAlbums(List.of("789"));
+
+        artistComparisonCache.onArtistStored(new ArtistStoredEvent(2L, "456", "Artist 2", 1, 1));
+        when(artistRepositoryMock.findArtistsWithAlbums(List.of("456"))).thenReturn(List.of(artist2));
+
+        discogsService.compareArtists(List.of("123", "456"));
+
+        verify(artistRepositoryMock, times(1)).findArtistsWithAlbums(List.of("456"));
+    }
+
     @Test
     void testCompareArtistsResourceNotFound() {
         // Arrange
@@ -203,7 +390,7 @@ class DiscogsServiceImplTest {
 
         when(discogsApiClientMock.searchArtist(artistName, page, perPage)).thenReturn(null);
 
-        List<Artist> result = discogsService.searchArtists(artistName, page, perPage);
+        List<Artist> result = discogsService.searchArtists(artistName, page, perPage, false);
 
         assertNotNull(result);
         assertTrue(result.isEmpty());
@@ -216,7 +403,7 @@ class DiscogsServiceImplTest {
         boolean sorted = true;
 
         IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () ->
-            discogsService.getAndStoreArtistDiscography(artistId, sorted, 0, 10)
+            discogsService.getAndStoreArtistDiscography(artistId, sorted, 0, 10, new MockServerHttpResponse())
         );
 
         assertEquals("Page and perPage must be greater than 0", exception.getMessage());
@@ -231,22 +418,241 @@ class DiscogsServiceImplTest {
 
         ArtistEntity existingArtist = new ArtistEntity();
         existingArtist.setId(1L);
+        existingArtist.setIngestedAt(Instant.now());
 
-        AlbumEntity album1 = new AlbumEntity(existingArtist, ALBUM_NAME_1, 2000, FORMAT, LABEL_1, TYPE, 1L);
-        AlbumEntity album2 = new AlbumEntity(existingArtist, ALBUM_NAME_2, 2005, FORMAT, LABEL_1, TYPE, 2L);
-
-        Page<AlbumEntity> albumPage = new PageImpl<>(List.of(album1, album2), PageRequest.of(0, 10, Sort.by("year")), 2);
+        Album album1 = new Album(ALBUM_NAME_1, 2000, FORMAT, LABEL_1);
+        Album album2 = new Album(ALBUM_NAME_2, 2005, FORMAT, LABEL_1);
 
         when(artistRepositoryMock.findByDiscogsId(artistId)).thenReturn(Optional.of(existingArtist));
-        when(albumRepositoryMock.findAlbumsByArtistId(1L, PageRequest.of(0, 10, Sort.by("year")))).thenReturn(albumPage);
+        when(albumRepositoryMock.findAlbumPageByArtistId(1L, PageRequest.of(0, 10, Sort.by("year")))).thenReturn(List.of(album1, album2));
 
-        Page<Album> result = discogsService.getAndStoreArtistDiscography(artistId, sorted, page, perPage);
+        MockServerHttpResponse response = new MockServerHttpResponse();
+        Page<Album> result = discogsService.getAndStoreArtistDiscography(artistId, sorted, page, perPage, response);
 
         assertNotNull(result);
         assertEquals(2, result.getTotalElements());
         assertEquals(ALBUM_NAME_1, result.getContent().get(0).getTitle());
         assertEquals(ALBUM_NAME_2, result.getContent().get(1).getTitle());
+        assertEquals("fresh", response.getHeaders().getFirst(DiscogsServiceImpl.REFRESH_HEADER));
         verify(artistRepositoryMock, times(1)).findByDiscogsId(artistId);
+        verify(albumRepositoryMock, never()).countByArtistId(anyLong());
+    }
+
+    @Test
+    void testGetAndStoreArtistDiscographyExistingArtistCountsLastPage() {
+        String artistId = "123";
+
+        ArtistEntity existingArtist = new ArtistEntity();
+        existingArtist.setId(1L);
+        existingArtist.setIngestedAt(Instant.now());
+
+        Album album1 = new Album(ALBUM_NAME_1, 2000, FORMAT, LABEL_1);
+        Album album2 = new Album(ALBUM_NAME_2, 2005, FORMAT, LABEL_1);
+
+        when(artistRepositoryMock.findByDiscogsId(artistId)).thenReturn(Optional.of(existingArtist));
+        when(albumRepositoryMock.findAlbumPageByArtistId(1L, PageRequest.of(1, 2))).thenReturn(List.of(album1, album2));
+        when(albumRepositoryMock.countByArtistId(1L)).thenReturn(7L);
+
+        Page<Album> result = discogsService.getAndStoreArtistDiscography(artistId, false, 2, 2, new MockServerHttpResponse());
+
+        assertEquals(7, result.getTotalElements());
+        assertEquals(4, result.getTotalPages());
+    }
+
+    @Test
+    void testGetAndStoreArtistDiscographyUsesStoredAlbumCount() {
+        String artistId = "123";
+
+        ArtistEntity existingArtist = new ArtistEntity();
+        existingArtist.setId(1L);
+        existingArtist.setIngestedAt(Instant.now());
+        existingArtist.setAlbumCount(9L);
+
+        Album album1 = new Album(ALBUM_NAME_1, 2000, FORMAT, LABEL_1);
+        Album album2 = new Album(ALBUM_NAME_2, 2005, FORMAT, LABEL_1);
+
+        when(artistRepositoryMock.findByDiscogsId(artistId)).thenReturn(Optional.of(existingArtist));
+        when(albumRepositoryMock.findAlbumPageByArtistId(1L, PageRequest.of(1, 2))).thenReturn(List.of(album1, album2));
+
+        Page<Album> result = discogsService.getAndStoreArtistDiscography(artistId, false, 2, 2, new MockServerHttpResponse());
+
+        assertEquals(9, result.getTotalElements());
+        assertEquals(5, result.getTotalPages());
+        verify(albumRepositoryMock, never()).countByArtistId(anyLong());
+    }
+
+    @Test
+    void testGetAndStoreArtistDiscographySliceRunsNoCount() {
+        String artistId = "123";
+
+        ArtistEntity existingArtist = new ArtistEntity();
+        existingArtist.setId(1L);
+        existingArtist.setIngestedAt(Instant.now());
+
+        Pageable pageable = PageRequest.of(0, 2, Sort.by("year"));
+        Slice<Album> slice = new SliceImpl<>(List.of(new Album(ALBUM_NAME_1, 2000, FORMAT, LABEL_1),
+                new Album(ALBUM_NAME_2, 2005, FORMAT, LABEL_1)), pageable, true);
+
+        when(artistRepositoryMock.findByDiscogsId(artistId)).thenReturn(Optional.of(existingArtist));
+        when(albumRepositoryMock.findAlbumSliceByArtistId(1L, pageable)).thenReturn(slice);
+
+        Slice<Album> result = discogsService.getAndStoreArtistDiscographySlice(artistId, true, 1, 2, new MockServerHttpResponse());
+
+        assertEquals(2, result.getNumberOfElements());
+        assertTrue(result.hasNext());
+        verify(albumRepositoryMock, never()).countByArtistId(anyLong());
+        verify(albumRepositoryMock, never()).findAlbumPageByArtistId(anyLong(), any());
+    }
+
+    @Test
+    void testGetAndStoreArtistDiscographyServesStaleArtistAndRefreshesOnce() {
+        String artistId = "123";
+
+        ArtistEntity staleArtist = new ArtistEntity();
+        staleArtist.setId(1L);
+        staleArtist.setIngestedAt(Instant.now().minus(Duration.ofDays(8)));
+        staleArtist.setAlbumCount(1L);
+
+        when(artistRepositoryMock.findByDiscogsId(artistId)).thenReturn(Optional.of(staleArtist));
+        when(albumRepositoryMock.findAlbumPageByArtistId(1L, PageRequest.of(0, 10)))
+                .thenReturn(List.of(new Album(ALBUM_NAME_1, 2000, FORMAT, LABEL_1)));
+
+        MockServerHttpResponse firstResponse = new MockServerHttpResponse();
+        Page<Album> result = discogsService.getAndStoreArtistDiscography(artistId, false, 1, 10, firstResponse);
+
+        assertEquals(1, result.getTotalElements());
+        assertEquals("scheduled", firstResponse.getHeaders().getFirst(DiscogsServiceImpl.REFRESH_HEADER));
+        assertTrue(Long.parseLong(firstResponse.getHeaders().getFirst(DiscogsServiceImpl.DATA_AGE_HEADER))
+                >= Duration.ofDays(8).toSeconds());
+
+        MockServerHttpResponse secondResponse = new MockServerHttpResponse();
+        discogsService.getAndStoreArtistDiscography(artistId, false, 1, 10, secondResponse);
+
+        assertEquals("pending", secondResponse.getHeaders().getFirst(DiscogsServiceImpl.REFRESH_HEADER));
+        verify(ingestionJobServiceMock, times(1)).submit(eq(artistId), any());
+        verifyNoInteractions(discogsApiClientMock);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testSubmitDiscographyIngestionSkipsStoredArtist() {
+        String artistId = "123";
+
+        IngestionJob queuedJob = new IngestionJob("job-1", artistId, IngestionJobStatus.QUEUED, 0, 0, 0, 0, null);
+        ArgumentCaptor<ToIntFunction<IngestionProgressListener>> taskCaptor = ArgumentCaptor.forClass(ToIntFunction.class);
+        when(ingestionJobServiceMock.submit(eq(artistId), taskCaptor.capture())).thenReturn(queuedJob);
+
+        IngestionJob result = discogsService.submitDiscographyIngestion(artistId);
+        assertEquals("job-1", result.getJobId());
+
+        when(ingestionStateRepositoryMock.findIngestedArtistId(artistId)).thenReturn(Optional.of(1L));
+        when(albumRepositoryMock.countByArtistId(1L)).thenReturn(42L);
+
+        assertEquals(42, taskCaptor.getValue().applyAsInt(IngestionProgressListener.NOOP));
+        verifyNoInteractions(discogsApiClientMock);
+    }
+
+    @Test
+    void testStreamArtistDiscographyReadsStoredAlbums() {
+        String artistId = "123";
+
+        ArtistEntity existingArtist = new ArtistEntity();
+        existingArtist.setId(1L);
+        existingArtist.setIngestedAt(Instant.now());
+
+        when(artistRepositoryMock.findByDiscogsId(artistId)).thenReturn(Optional.of(existingArtist));
+        when(albumRepositoryMock.findAlbumRowsAfterId(eq(1L), eq(0L), any(PageRequest.class))).thenReturn(List.of(
+                new AlbumRowDto(10L, ALBUM_NAME_1, 2000, FORMAT, LABEL_1),
+                new AlbumRowDto(11L, ALBUM_NAME_2, 2005, FORMAT, LABEL_1)
+        ));
+
+        List<Album> result = discogsService.streamArtistDiscography(artistId).collectList().block();
+
+        assertNotNull(result);
+        assertEquals(2, result.size());
+        assertEquals(ALBUM_NAME_2, result.get(1).getTitle());
+        verify(albumRepositoryMock, times(1)).findAlbumRowsAfterId(eq(1L), eq(0L), any(PageRequest.class));
+    }
+
+    @Test
+    void testStreamArtistDiscographyArtistNotStored() {
+        when(artistRepositoryMock.findByDiscogsId("123")).thenReturn(Optional.empty());
+
+        assertThrows(ResourceNotFoundException.class, () ->
+            discogsService.streamArtistDiscography("123").collectList().block()
+        );
+        verifyNoInteractions(albumRepositoryMock);
+    }
+
+    @Test
+    void testReprocessReleaseArchiveNotFoundWhenArchiveIsDisabled() {
+        when(archiveReprocessorMock.isArchiveEnabled()).thenReturn(false);
+
+        assertThrows(ResourceNotFoundException.class, () -> discogsService.reprocessReleaseArchive());
+        verifyNoInteractions(ingestionJobServiceMock);
+    }
+
+    @Test
+    void testReprocessReleaseArchiveSubmitsJob() {
+        IngestionJob queuedJob = new IngestionJob("job-2", "release-page-archive", IngestionJobStatus.QUEUED,
+                0, 0, 0, 0, null);
+        when(archiveReprocessorMock.isArchiveEnabled()).thenReturn(true);
+        when(ingestionJobServiceMock.submit(eq("release-page-archive"), any())).thenReturn(queuedJob);
+
+        assertEquals("job-2", discogsService.reprocessReleaseArchive().getJobId());
+    }
+
+    @Test
+    void testGetAndStoreArtistDiscographyRemembersArtistMissingUpstream() throws JsonProcessingException {
+        String artistId = "404";
+
+        when(artistRepositoryMock.findByDiscogsId(artistId)).thenReturn(Optional.empty());
+        when(discogsApiClientMock.getArtistDetails(artistId, RequestPriority.INTERACTIVE_DISCOGRAPHY))
+                .thenThrow(new NotFoundException("Resource not found"));
+
+        assertThrows(NotFoundException.class, () ->
+            discogsService.getAndStoreArtistDiscography(artistId, false, 1, 10, new MockServerHttpResponse())
+        );
+        assertThrows(NotFoundException.class, () ->
+            discogsService.getAndStoreArtistDiscography(artistId, false, 1, 10, new MockServerHttpResponse())
+        );
+
+        verify(discogsApiClientMock, times(1)).getArtistDetails(artistId, RequestPriority.INTERACTIVE_DISCOGRAPHY);
+        verify(artistRepositoryMock, times(1)).findByDiscogsId(artistId);
+    }
+
+    @Test
+    void testGetAndStoreArtistDiscographyRejectsColdIngestionWhenAdmissionIsFull() throws JsonProcessingException {
+        String artistId = "123";
+
+        when(artistRepositoryMock.findByDiscogsId(artistId)).thenReturn(Optional.empty());
+        doThrow(new AdmissionRejectedException("Too many discographies are being ingested, try again later", 5))
+                .when(admissionController).admit(any());
+
+        AdmissionRejectedException exception = assertThrows(AdmissionRejectedException.class, () ->
+            discogsService.getAndStoreArtistDiscography(artistId, false, 1, 10, new MockServerHttpResponse())
+        );
+
+        assertEquals(5, exception.getRetryAfterSeconds());
+        //a rejected caller never queued on the lease
+        verify(ingestionLeaseManager, never()).runExclusive(anyString(), any());
+        verify(discogsApiClientMock, never()).getArtistDetails(anyString(), any(RequestPriority.class));
+    }
+
+    @Test
+    void testGetAndStoreArtistDiscographyWarmReadBypassesAdmission() {
+        String artistId = "123";
+
+        ArtistEntity existingArtist = new ArtistEntity();
+        existingArtist.setId(1L);
+        existingArtist.setIngestedAt(Instant.now());
+
+        when(artistRepositoryMock.findByDiscogsId(artistId)).thenReturn(Optional.of(existingArtist));
+        when(albumRepositoryMock.findAlbumPageByArtistId(1L, PageRequest.of(0, 10))).thenReturn(List.of());
+
+        discogsService.getAndStoreArtistDiscography(artistId, false, 1, 10, new MockServerHttpResponse());
+
+        verify(admissionController, never()).admit(any());
     }
 
     @Test
@@ -257,35 +663,40 @@ class DiscogsServiceImplTest {
         int perPage = 10;
 
         when(artistRepositoryMock.findByDiscogsId(artistId)).thenReturn(Optional.empty());
-        when(discogsApiClientMock.getArtistDetails(artistId)).thenReturn(null);
+        when(discogsApiClientMock.getArtistDetails(artistId, RequestPriority.INTERACTIVE_DISCOGRAPHY)).thenReturn(null);
 
         ExternalApiException exception = assertThrows(ExternalApiException.class, () ->
-            discogsService.getAndStoreArtistDiscography(artistId, sorted, page, perPage)
+            discogsService.getAndStoreArtistDiscography(artistId, sorted, page, perPage, new MockServerHttpResponse())
         );
 
         assertEquals("No valid artist data returned from Discogs API", exception.getMessage());
     }
 
     @Test
-    void testGetAndStoreArtistDiscographyInvalidAlbumResponse() throws JsonProcessingException {
+    void testGetAndStoreArtistDiscographyResumesFromMissingPages() throws JsonProcessingException {
         String artistId = "123";
-        boolean sorted = true;
-        int page = 1;
-        int perPage = 10;
 
         DiscogsArtistResponse.Artist mockArtist = new DiscogsArtistResponse.Artist();
         mockArtist.setDiscogsId("123");
         mockArtist.setName(ARTIST_NAME);
 
         when(artistRepositoryMock.findByDiscogsId(artistId)).thenReturn(Optional.empty());
-        when(discogsApiClientMock.getArtistDetails(artistId)).thenReturn(mockArtist);
-        when(discogsApiClientMock.getArtistDiscography(artistId)).thenReturn(null);
-
-        ExternalApiException exception = assertThrows(ExternalApiException.class, () ->
-            discogsService.getAndStoreArtistDiscography(artistId, sorted, page, perPage)
+        when(discogsApiClientMock.getArtistDetails(artistId, RequestPriority.INTERACTIVE_DISCOGRAPHY)).thenReturn(mockArtist);
+        when(discogsApiClientMock.getReleasesPerPage()).thenReturn(100);
+        when(discographyWriterMock.upsertArtist(any(ArtistEntity.class))).thenReturn(1L);
+        when(ingestionStateRepositoryMock.begin(artistId, 100))
+                .thenReturn(new IngestionState(artistId, 100, 3, Set.of(1, 2), "Batch processing failed for Discogs API"));
+        when(discogsApiClientMock.fetchArtistReleasePages(eq(artistId), eq(RequestPriority.INTERACTIVE_DISCOGRAPHY),
+                any(IngestionProgressListener.class), eq(Set.of(1, 2)), any(ReleasePageHandler.class)))
+                .thenThrow(new ExternalApiException("Batch processing failed for Discogs API"));
+
+        assertThrows(ExternalApiException.class, () ->
+            discogsService.getAndStoreArtistDiscography(artistId, false, 1, 10, new MockServerHttpResponse())
         );
 
-        assertEquals("No valid album data returned from Discogs API", exception.getMessage());
+        verify(ingestionStateRepositoryMock, times(1)).recordError(artistId, "Batch processing failed for Discogs API");
+        verify(discographyWriterMock, never()).markIngested(anyLong(), anyLong());
+        verifyNoInteractions(eventPublisherMock);
     }
 
     @Test
@@ -0,0 +1,183 @@
+package com.challenge.service;
+
+import com.challenge.services.RawResponseCache.Endpoint;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Local stand-in for the Discogs API that counts the requests it serves per endpoint. Every artist exists and
+ * has {@link #RELEASES_PER_ARTIST} releases; searches return the artists set with {@link #setSearchResults}.
+ * Artist bodies come with an ETag and are answered with a 304 when the request sends it back. The release pages
+ * of artists set with {@link #setArtistsWithoutReleaseData} have no releases list.
+ */
+class DiscogsStub implements AutoCloseable {
+
+    static final int RELEASES_PER_ARTIST = 250;
+
+    //the stub threads are named so their allocations can be told apart from the service's
+    static final String THREAD_PREFIX = "discogs-stub-";
+
+    private static final Pattern RELEASES_PATH = Pattern.compile("/artists/([^/]+)/releases");
+    private static final Pattern ARTIST_PATH = Pattern.compile("/artists/([^/]+)");
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final Map<Endpoint, AtomicInteger> calls = new ConcurrentHashMap<>();
+    private final AtomicInteger notModified = new AtomicInteger();
+    private volatile List<String> searchResults = List.of();
+    private volatile Set<String> artistsWithoutReleaseData = Set.of();
+
+    private DiscogsStub(HttpServer server, ExecutorService executor) {
+        this.server = server;
+        this.executor = executor;
+        for (Endpoint endpoint : Endpoint.values()) {
+            calls.put(endpoint, new AtomicInteger());
+        }
+    }
+
+    static DiscogsStub start() {
+        try {
+            HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+            AtomicInteger threadCounter = new AtomicInteger();
+            ExecutorService executor = Executors.newFixedThreadPool(4, runnable -> {
+                Thread thread = new Thread(runnable, THREAD_PREFIX + threadCounter.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+            DiscogsStub stub = new DiscogsStub(server, executor);
+            server.createContext("/", stub::handle);
+            server.setExecutor(executor);
+            server.start();
+            return stub;
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    String baseUrl() {
+        return "http://localhost:" + server.getAddress().getPort();
+    }
+
+    void setSearchResults(String... discogsIds) {
+        searchResults = List.of(discogsIds);
+    }
+
+    void setArtistsWithoutReleaseData(String... discogsIds) {
+        artistsWithoutReleaseData = Set.of(discogsIds);
+    }
+
+    int calls(Endpoint endpoint) {
+        return calls.get(endpoint).get();
+    }
+
+    int notModifiedResponses() {
+        return notModified.get();
+    }
+
+    int totalCalls() {
+        return calls.values().stream().mapToInt(AtomicInteger::get).sum();
+    }
+
+    void reset() {
+        calls.values().forEach(counter -> counter.set(0));
+        notModified.set(0);
+        artistsWithoutReleaseData = Set.of();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        String path = exchange.getRequestURI().getPath();
+        Map<String, String> query = parseQuery(exchange.getRequestURI().getRawQuery());
+
+        Matcher releases = RELEASES_PATH.matcher(path);
+        Matcher artist = ARTIST_PATH.matcher(path);
+        String body;
+        if (path.equals("/database/search")) {
+            calls.get(Endpoint.SEARCH).incrementAndGet();
+            body = searchBody();
+        } else if (releases.matches()) {
+            calls.get(Endpoint.RELEASES).incrementAndGet();
+            body = artistsWithoutReleaseData.contains(releases.group(1))
+                    ? "{\"pagination\":{\"page\":1,\"pages\":1,\"per_page\":50,\"items\":0}}"
+                    : releasesBody(Integer.parseInt(query.getOrDefault("page", "1")),
+                    Integer.parseInt(query.getOrDefault("per_page", "50")));
+        } else if (artist.matches()) {
+            calls.get(Endpoint.ARTIST).incrementAndGet();
+            String etag = "\"artist-" + artist.group(1) + "\"";
+            exchange.getResponseHeaders().set("ETag", etag);
+            if (etag.equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+                notModified.incrementAndGet();
+                exchange.sendResponseHeaders(304, -1);
+                exchange.close();
+                return;
+            }
+            body = artistBody(artist.group(1));
+        } else {
+            exchange.sendResponseHeaders(404, -1);
+            exchange.close();
+            return;
+        }
+
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private String searchBody() {
+        StringJoiner results = new StringJoiner(",", "{\"results\":[", "]}");
+        for (String discogsId : searchResults) {
+            results.add("{\"id\":\"" + discogsId + "\",\"title\":\"Artist " + discogsId + "\"}");
+        }
+        return results.toString();
+    }
+
+    private static String artistBody(String discogsId) {
+        return "{\"id\":\"" + discogsId + "\",\"name\":\"Artist " + discogsId + "\",\"profile\":\"Stub artist\"}";
+    }
+
+    private static String releasesBody(int page, int perPage) {
+        int pages = (RELEASES_PER_ARTIST + perPage - 1) / perPage;
+        StringJoiner releases = new StringJoiner(",", "{\"releases\":[", "]");
+        for (int id = (page - 1) * perPage + 1; id <= Math.min(page * perPage, RELEASES_PER_ARTIST); id++) {
+            releases.add("{\"id\":" + id + ",\"title\":\"Release " + id + "\",\"year\":" + (1970 + id % 40)
+                    + ",\"type\":\"" + (id % 5 == 0 ? "master" : "release") + "\",\"format\":\"Vinyl\""
+                    + ",\"label\":\"Stub Records\"}");
+        }
+        return releases + ",\"pagination\":{\"page\":" + page + ",\"pages\":" + pages + ",\"per_page\":" + perPage
+                + ",\"items\":" + RELEASES_PER_ARTIST + "}}";
+    }
+
+    private static Map<String, String> parseQuery(String rawQuery) {
+        Map<String, String> parameters = new HashMap<>();
+        if (rawQuery != null) {
+            for (String parameter : rawQuery.split("&")) {
+                int separator = parameter.indexOf('=');
+                if (separator > 0) {
+                    parameters.put(parameter.substring(0, separator), parameter.substring(separator + 1));
+                }
+            }
+        }
+        return parameters;
+    }
+}
@@ -0,0 +1,125 @@
+package com.challenge.service;
+
+import com.challenge.exceptions.AdmissionRejectedException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.*;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IngestionAdmissionControllerTest {
+
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private final CountDownLatch finish = new CountDownLatch(1);
+
+    @AfterEach
+    void tearDown() {
+        finish.countDown();
+        executor.shutdownNow();
+    }
+
+    @Test
+    void testCallerIsRejectedWhenTheQueueIsFull() throws Exception {
+        IngestionAdmissionController admissionController = newController(1, 1, Duration.ofSeconds(5));
+        Future<String> running = occupySlot(admissionController);
+        Future<String> queued = executor.submit(() -> admissionController.admit(() -> "queued"));
+        awaitTrue(() -> admissionController.getQueued() == 1);
+
+        AdmissionRejectedException exception = assertThrows(AdmissionRejectedException.class,
+                () -> admissionController.admit(() -> "rejected"));
+        assertEquals("Too many discographies are being ingested, try again later", exception.getMessage());
+        assertTrue(exception.getRetryAfterSeconds() >= 1);
+        assertEquals(1, admissionController.getQueued());
+
+        finish.countDown();
+        assertEquals("done", running.get(5, TimeUnit.SECONDS));
+        assertEquals("queued", queued.get(5, TimeUnit.SECONDS));
+        assertEquals(0, admissionController.getQueued());
+    }
+
+    @Test
+    void testQueuedCallerTimesOut() throws Exception {
+        IngestionAdmissionController admissionController = newController(1, 5, Duration.ofMillis(100));
+        Future<String> running = occupySlot(admissionController);
+
+        AdmissionRejectedException exception = assertThrows(AdmissionRejectedException.class,
+                () -> admissionController.admit(() -> "too late"));
+        assertEquals("Timed out waiting for a discography ingestion slot", exception.getMessage());
+        assertEquals(0, admissionController.getQueued());
+
+        finish.countDown();
+        assertEquals("done", running.get(5, TimeUnit.SECONDS));
+        assertEquals("admitted", admissionController.admit(() -> "admitted"));
+    }
+
+    @Test
+    void testRetryAfterFollowsTheQueueAndTheAverageDuration() throws Exception {
+        IngestionAdmissionController admissionController = newController(1, 5, Duration.ofSeconds(5),
+                Duration.ofMillis(9500));
+        //one slot draining every 9.5 seconds
+        assertEquals(10, admissionController.retryAfterSeconds());
+
+        //an instant ingestion pulls the average down to about 7.6 seconds
+        admissionController.admit(() -> "fast");
+        assertEquals(8, admissionController.retryAfterSeconds());
+
+        Future<String> running = occupySlot(admissionController);
+        executor.submit(() -> admissionController.admit(() -> "queued"));
+        awaitTrue(() -> admissionController.getQueued() == 1);
+        //the queued caller and one more
+        assertEquals(16, admissionController.retryAfterSeconds());
+
+        finish.countDown();
+        running.get(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void testSlotsAreReleasedWhenTheIngestionFails() {
+        IngestionAdmissionController admissionController = newController(1, 0, Duration.ofMillis(100));
+
+        assertThrows(IllegalStateException.class, () -> admissionController.admit(() -> {
+            throw new IllegalStateException("ingestion failed");
+        }));
+
+        assertEquals("next", admissionController.admit(() -> "next"));
+    }
+
+    private static IngestionAdmissionController newController(int maxConcurrent, int maxQueued, Duration maxQueueWait) {
+        return newController(maxConcurrent, maxQueued, maxQueueWait, Duration.ofSeconds(5));
+    }
+
+    private static IngestionAdmissionController newController(int maxConcurrent, int maxQueued, Duration maxQueueWait,
+                                                              Duration initialDurationEstimate) {
+        return new IngestionAdmissionController(maxConcurrent, maxQueued, maxQueueWait, initialDurationEstimate);
+    }
+
+    private Future<String> occupySlot(IngestionAdmissionController admissionController) throws InterruptedException {
+        CountDownLatch admitted = new CountDownLatch(1);
+        Future<String> running = executor.submit(() -> admissionController.admit(() -> {
+            admitted.countDown();
+            return awaitFinish();
+        }));
+        assertTrue(admitted.await(5, TimeUnit.SECONDS));
+        return running;
+    }
+
+    private String awaitFinish() {
+        try {
+            finish.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        return "done";
+    }
+
+    private static void awaitTrue(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "Condition not reached in time");
+            Thread.sleep(10);
+        }
+    }
+}
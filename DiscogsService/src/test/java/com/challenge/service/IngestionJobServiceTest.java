@@ -0,0 +1,160 @@
+package com.challenge.service;
+
+import com.challenge.api.core.IngestionJob;
+import com.challenge.api.core.IngestionJobStatus;
+import com.challenge.exceptions.ResourceNotFoundException;
+import com.challenge.exceptions.TooManyRequestsException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IngestionJobServiceTest {
+
+    private final CountDownLatch finish = new CountDownLatch(1);
+    private IngestionJobService ingestionJobService;
+
+    @AfterEach
+    void tearDown() {
+        finish.countDown();
+        ingestionJobService.shutdown();
+    }
+
+    @Test
+    void testReleasesStoredAreReportedWhileTheJobRuns() throws Exception {
+        ingestionJobService = new IngestionJobService(1, 10, Duration.ofHours(1));
+
+        IngestionJob job = ingestionJobService.submit("1", listener -> {
+            listener.onTotalPages(3);
+            listener.onPageFetched(100);
+            listener.onPageFetched(40);
+            await(finish);
+            return 140;
+        });
+        awaitTrue(() -> ingestionJobService.getJob(job.getJobId()).getPagesFetched() == 2);
+
+        IngestionJob running = ingestionJobService.getJob(job.getJobId());
+        assertEquals(IngestionJobStatus.RUNNING, running.getStatus());
+        assertEquals(140, running.getReleasesStored());
+
+        finish.countDown();
+        awaitStatus(job.getJobId(), IngestionJobStatus.COMPLETED);
+        assertEquals(140, ingestionJobService.getJob(job.getJobId()).getReleasesStored());
+    }
+
+    @Test
+    void testFullQueueIsRejected() throws Exception {
+        ingestionJobService = new IngestionJobService(1, 1, Duration.ofHours(1));
+        IngestionJob running = ingestionJobService.submit("1", listener -> await(finish));
+        awaitStatus(running.getJobId(), IngestionJobStatus.RUNNING);
+        IngestionJob queued = ingestionJobService.submit("2", listener -> 0);
+
+        assertEquals(IngestionJobStatus.QUEUED, queued.getStatus());
+        assertThrows(TooManyRequestsException.class, () -> ingestionJobService.submit("3", listener -> 0));
+
+        //the rejected job is not left behind as the active job of its artist
+        finish.countDown();
+        awaitStatus(queued.getJobId(), IngestionJobStatus.COMPLETED);
+        IngestionJob retried = ingestionJobService.submit("3", listener -> 0);
+        awaitStatus(retried.getJobId(), IngestionJobStatus.COMPLETED);
+    }
+
+    @Test
+    void testArtistHasOneActiveJobAtATime() throws Exception {
+        ingestionJobService = new IngestionJobService(2, 10, Duration.ofHours(1));
+        IngestionJob first = ingestionJobService.submit("1", listener -> await(finish));
+
+        assertEquals(first.getJobId(), ingestionJobService.submit("1", listener -> 0).getJobId());
+        assertNotEquals(first.getJobId(), ingestionJobService.submit("2", listener -> 0).getJobId());
+
+        finish.countDown();
+        awaitStatus(first.getJobId(), IngestionJobStatus.COMPLETED);
+        assertNotEquals(first.getJobId(), ingestionJobService.submit("1", listener -> 0).getJobId());
+    }
+
+    @Test
+    void testStreamCompletesWithTheFinalState() throws Exception {
+        ingestionJobService = new IngestionJobService(1, 10, Duration.ofHours(1));
+        IngestionJob job = ingestionJobService.submit("1", listener -> {
+            await(finish);
+            listener.onPageFetched(7);
+            return 7;
+        });
+        awaitStatus(job.getJobId(), IngestionJobStatus.RUNNING);
+
+        Thread releaser = new Thread(() -> {
+            sleep(100);
+            finish.countDown();
+        });
+        releaser.start();
+        List<IngestionJob> updates = ingestionJobService.streamJob(job.getJobId()).collectList()
+                .block(Duration.ofSeconds(5));
+
+        assertNotNull(updates);
+        assertEquals(IngestionJobStatus.RUNNING, updates.get(0).getStatus());
+        IngestionJob last = updates.get(updates.size() - 1);
+        assertEquals(IngestionJobStatus.COMPLETED, last.getStatus());
+        assertEquals(7, last.getReleasesStored());
+    }
+
+    @Test
+    void testFailedJobReportsTheError() throws Exception {
+        ingestionJobService = new IngestionJobService(1, 10, Duration.ofHours(1));
+        IngestionJob job = ingestionJobService.submit("1", listener -> {
+            throw new IllegalStateException("Discogs is down");
+        });
+
+        awaitStatus(job.getJobId(), IngestionJobStatus.FAILED);
+        assertEquals("Discogs is down", ingestionJobService.getJob(job.getJobId()).getError());
+    }
+
+    @Test
+    void testFinishedJobsArePurgedAfterTheRetention() throws Exception {
+        ingestionJobService = new IngestionJobService(2, 10, Duration.ZERO);
+        IngestionJob finished = ingestionJobService.submit("1", listener -> 0);
+        awaitStatus(finished.getJobId(), IngestionJobStatus.COMPLETED);
+        IngestionJob running = ingestionJobService.submit("2", listener -> await(finish));
+        sleep(20);
+
+        //purging happens on the next submission
+        ingestionJobService.submit("3", listener -> 0);
+
+        assertThrows(ResourceNotFoundException.class, () -> ingestionJobService.getJob(finished.getJobId()));
+        assertNotNull(ingestionJobService.getJob(running.getJobId()));
+    }
+
+    private void awaitStatus(String jobId, IngestionJobStatus status) throws InterruptedException {
+        awaitTrue(() -> ingestionJobService.getJob(jobId).getStatus() == status);
+    }
+
+    private static void awaitTrue(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "Condition not reached in time");
+            Thread.sleep(10);
+        }
+    }
+
+    private static int await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        return 0;
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package com.challenge.service;
+
+import com.challenge.services.RawResponseCache;
+import com.challenge.services.RawResponseCache.CachedResponse;
+import com.challenge.services.RawResponseCache.Endpoint;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RawResponseCacheTest {
+
+    private static final Duration SHORT_TTL = Duration.ofMillis(100);
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void testKeyOfDropsTheTokenWhereverItIs() {
+        assertEquals("/artists/1/releases?page=2&per_page=50",
+                RawResponseCache.keyOf("/artists/1/releases?token=secret&page=2&per_page=50"));
+        assertEquals("/artists/1/releases?page=2&per_page=50",
+                RawResponseCache.keyOf("/artists/1/releases?page=2&token=secret&per_page=50"));
+        assertEquals("/artists/1/releases?page=2&per_page=50",
+                RawResponseCache.keyOf("/artists/1/releases?page=2&per_page=50&token=secret"));
+        assertEquals("/artists/1", RawResponseCache.keyOf("/artists/1?token=secret"));
+        assertEquals("/database/search?q=a&mytoken=1", RawResponseCache.keyOf("/database/search?q=a&mytoken=1"));
+    }
+
+    @Test
+    void testEntriesAreWeighedByTheirCompressedSize() {
+        RawResponseCache cache = newCache(64 * 1024, Duration.ofMinutes(5), Duration.ofHours(1));
+        String body = "{\"releases\":[" + "{\"title\":\"Same release\"},".repeat(4000) + "]}";
+
+        cache.put("/artists/1/releases?page=1", Endpoint.RELEASES, body, null, null);
+
+        assertEquals(body, cache.get("/artists/1/releases?page=1").getBody());
+        //the body is larger than the whole cache, only its compressed form counts
+        assertTrue(body.length() > 64 * 1024);
+        assertTrue(weightedSize() < 1024);
+    }
+
+    @Test
+    void testTotalCompressedSizeStaysWithinTheBound() {
+        //random bodies barely compress, four of them do not fit
+        RawResponseCache cache = newCache(12_000, Duration.ofMinutes(5), Duration.ofHours(1));
+        Random random = new Random(1);
+        IntStream.range(0, 4).forEach(i -> cache.put("/artists/" + i, Endpoint.ARTIST, randomBody(random, 4000),
+                null, null));
+
+        assertTrue(weightedSize() <= 12_000);
+        assertEquals(3, IntStream.range(0, 4).filter(i -> cache.get("/artists/" + i) != null).count());
+
+        cache.put("/artists/huge", Endpoint.ARTIST, randomBody(random, 20_000), null, null);
+        assertNull(cache.get("/artists/huge"));
+    }
+
+    @Test
+    void testStaleEntryWithoutValidatorsExpires() throws InterruptedException {
+        RawResponseCache cache = newCache(64 * 1024, SHORT_TTL, Duration.ofHours(1));
+        cache.put("/artists/1", Endpoint.ARTIST, "{\"id\":1}", null, null);
+        assertTrue(cache.get("/artists/1").isFresh());
+
+        Thread.sleep(SHORT_TTL.toMillis() * 3);
+
+        assertNull(cache.get("/artists/1"));
+    }
+
+    @Test
+    void testStaleEntryWithValidatorsIsKeptForRevalidation() throws InterruptedException {
+        RawResponseCache cache = newCache(64 * 1024, SHORT_TTL, Duration.ofHours(1));
+        cache.put("/artists/1", Endpoint.ARTIST, "{\"id\":1}", "\"v1\"", null);
+        cache.put("/artists/2", Endpoint.ARTIST, "{\"id\":2}", null, "Wed, 21 Oct 2026 07:28:00 GMT");
+
+        Thread.sleep(SHORT_TTL.toMillis() * 3);
+
+        CachedResponse byEtag = cache.get("/artists/1");
+        assertFalse(byEtag.isFresh());
+        assertEquals("\"v1\"", byEtag.getEtag());
+        assertFalse(cache.get("/artists/2").isFresh());
+
+        cache.markRevalidated("/artists/1", Endpoint.ARTIST, byEtag);
+        assertTrue(cache.get("/artists/1").isFresh());
+        assertEquals("{\"id\":1}", cache.get("/artists/1").getBody());
+    }
+
+    @Test
+    void testStaleEntryIsDroppedAfterTheRevalidationWindow() throws InterruptedException {
+        RawResponseCache cache = newCache(64 * 1024, SHORT_TTL, SHORT_TTL);
+        cache.put("/artists/1", Endpoint.ARTIST, "{\"id\":1}", "\"v1\"", null);
+
+        Thread.sleep(SHORT_TTL.toMillis() * 4);
+
+        assertNull(cache.get("/artists/1"));
+    }
+
+    private RawResponseCache newCache(long maxBytes, Duration ttl, Duration revalidationWindow) {
+        return new RawResponseCache(maxBytes, ttl, ttl, ttl, revalidationWindow, meterRegistry);
+    }
+
+    private double weightedSize() {
+        return meterRegistry.get("discogs.client.response-cache.size").gauge().value();
+    }
+
+    private static String randomBody(Random random, int length) {
+        StringBuilder body = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            body.append((char) ('!' + random.nextInt(90)));
+        }
+        return body.toString();
+    }
+}
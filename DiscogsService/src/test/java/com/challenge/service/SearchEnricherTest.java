@@ -0,0 +1,132 @@
+package com.challenge.service;
+
+import com.challenge.api.core.Artist;
+import com.challenge.dtos.ArtistReleaseCountDto;
+import com.challenge.persistence.ArtistRepository;
+import com.challenge.services.DiscogsApiClient;
+import com.challenge.services.RequestPriority;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.stubbing.Answer;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SearchEnricherTest {
+
+    @Mock
+    private DiscogsApiClient discogsApiClientMock;
+
+    @Mock
+    private ArtistRepository artistRepositoryMock;
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private SearchEnricher searchEnricher;
+
+    @AfterEach
+    void tearDown() {
+        if (searchEnricher != null) {
+            searchEnricher.shutdown();
+        }
+    }
+
+    @Test
+    void testStoredCountsAreUsedAndTheRestLookedUpOnDiscogs() {
+        searchEnricher = newEnricher(2, 10, Duration.ofSeconds(5));
+        when(artistRepositoryMock.findStoredReleaseCounts(List.of("1", "2")))
+                .thenReturn(List.of(new ArtistReleaseCountDto("1", "Stored", 12L)));
+        when(discogsApiClientMock.getArtistReleaseCount("2", RequestPriority.INTERACTIVE_SEARCH)).thenReturn(34L);
+        List<Artist> artists = List.of(artist("1", "Stored"), artist("2", "Upstream"), artist(null, "No id"));
+
+        List<Artist> enriched = searchEnricher.enrich(artists);
+
+        assertEquals(List.of("Stored", "Upstream", "No id"), enriched.stream().map(Artist::getName).toList());
+        assertEquals(12L, enriched.get(0).getNumberOfReleases());
+        assertEquals(34L, enriched.get(1).getNumberOfReleases());
+        assertNull(enriched.get(2).getNumberOfReleases());
+        //the given artists may be cached search results and stay untouched
+        assertTrue(artists.stream().allMatch(artist -> artist.getNumberOfReleases() == null));
+        verify(discogsApiClientMock, never()).getArtistReleaseCount(eq("1"), any());
+        assertEquals(1.0, count("stored"));
+        assertEquals(1.0, count("discogs"));
+    }
+
+    @Test
+    void testLookupStillRunningWhenTheBudgetRunsOutIsCancelled() throws Exception {
+        searchEnricher = newEnricher(2, 10, Duration.ofMillis(200));
+        CountDownLatch interrupted = new CountDownLatch(1);
+        when(artistRepositoryMock.findStoredReleaseCounts(List.of("1", "2"))).thenReturn(List.of());
+        when(discogsApiClientMock.getArtistReleaseCount("1", RequestPriority.INTERACTIVE_SEARCH))
+                .thenAnswer(blockUntilInterrupted(interrupted));
+        when(discogsApiClientMock.getArtistReleaseCount("2", RequestPriority.INTERACTIVE_SEARCH)).thenReturn(7L);
+
+        List<Artist> enriched = searchEnricher.enrich(List.of(artist("1", "Slow"), artist("2", "Fast")));
+
+        //partial results: the slow artist is returned without a count
+        assertNull(enriched.get(0).getNumberOfReleases());
+        assertEquals(7L, enriched.get(1).getNumberOfReleases());
+        assertTrue(interrupted.await(5, TimeUnit.SECONDS));
+        assertEquals(1.0, count("none"));
+    }
+
+    @Test
+    void testLookupsRejectedByTheFullQueueAreLeftWithoutCount() throws Exception {
+        //one thread and one queued lookup, the third lookup is rejected
+        searchEnricher = newEnricher(1, 1, Duration.ofMillis(200));
+        CountDownLatch interrupted = new CountDownLatch(1);
+        when(artistRepositoryMock.findStoredReleaseCounts(List.of("1", "2", "3"))).thenReturn(List.of());
+        when(discogsApiClientMock.getArtistReleaseCount("1", RequestPriority.INTERACTIVE_SEARCH))
+                .thenAnswer(blockUntilInterrupted(interrupted));
+        //the queued lookup may still be picked up once the first one is cancelled
+        lenient().when(discogsApiClientMock.getArtistReleaseCount("2", RequestPriority.INTERACTIVE_SEARCH))
+                .thenAnswer(blockUntilInterrupted(new CountDownLatch(1)));
+
+        List<Artist> enriched = searchEnricher.enrich(
+                List.of(artist("1", "Blocking"), artist("2", "Queued"), artist("3", "Rejected")));
+
+        assertTrue(enriched.stream().allMatch(artist -> artist.getNumberOfReleases() == null));
+        assertTrue(interrupted.await(5, TimeUnit.SECONDS));
+        //the rejected lookup was never submitted
+        verify(discogsApiClientMock, never()).getArtistReleaseCount(eq("3"), any());
+        assertEquals(3.0, count("none"));
+    }
+
+    private SearchEnricher newEnricher(int concurrency, int queueCapacity, Duration timeBudget) {
+        return new SearchEnricher(discogsApiClientMock, artistRepositoryMock, concurrency, queueCapacity, timeBudget,
+                meterRegistry);
+    }
+
+    private double count(String source) {
+        return meterRegistry.get("discogs.search.enrich").tag("source", source).counter().count();
+    }
+
+    private static Answer<Long> blockUntilInterrupted(CountDownLatch interrupted) {
+        return invocation -> {
+            try {
+                new CountDownLatch(1).await();
+                return 0L;
+            } catch (InterruptedException ex) {
+                interrupted.countDown();
+                throw ex;
+            }
+        };
+    }
+
+    private static Artist artist(String discogsId, String name) {
+        Artist artist = new Artist();
+        artist.setDiscogsId(discogsId);
+        artist.setName(name);
+        return artist;
+    }
+}
@@ -0,0 +1,94 @@
+package com.challenge.services;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdaptiveConcurrencyLimiterTest {
+
+    private static final long BASELINE_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void testLimitGrowsUpToTheCeilingWhileItIsUsed() {
+        AdaptiveConcurrencyLimiter limiter = newLimiter(2, 1, 6);
+
+        for (int sample = 0; sample < 200; sample++) {
+            while (limiter.getInFlight() < limiter.getLimit()) {
+                limiter.acquire();
+            }
+            limiter.onSample(BASELINE_NANOS, false);
+        }
+
+        assertEquals(6, limiter.getLimit());
+    }
+
+    @Test
+    void testLimitDoesNotGrowWhileItIsNotUsed() {
+        AdaptiveConcurrencyLimiter limiter = newLimiter(4, 1, 10);
+
+        for (int sample = 0; sample < 100; sample++) {
+            limiter.onSample(BASELINE_NANOS, false);
+        }
+
+        assertEquals(4, limiter.getLimit());
+    }
+
+    @Test
+    void testRateLimitHalvesTheLimitDownToTheFloor() {
+        AdaptiveConcurrencyLimiter limiter = newLimiter(8, 2, 10);
+
+        limiter.onSample(BASELINE_NANOS, true);
+        assertEquals(4, limiter.getLimit());
+        limiter.onSample(BASELINE_NANOS, true);
+        limiter.onSample(BASELINE_NANOS, true);
+        assertEquals(2, limiter.getLimit());
+    }
+
+    @Test
+    void testInflatedLatencyShrinksTheLimit() {
+        AdaptiveConcurrencyLimiter limiter = newLimiter(10, 1, 10);
+        limiter.onSample(BASELINE_NANOS, false);
+
+        //three times the lowest latency seen is past the tolerance of two
+        limiter.onSample(BASELINE_NANOS * 3, false);
+        assertEquals(9, limiter.getLimit());
+
+        //within the tolerance the limit is left alone
+        limiter.onSample(BASELINE_NANOS * 3 / 2, false);
+        assertEquals(9, limiter.getLimit());
+    }
+
+    @Test
+    void testInitialLimitIsClampedToTheBounds() {
+        assertEquals(3, newLimiter(1, 3, 10).getLimit());
+        assertEquals(10, newLimiter(50, 3, 10).getLimit());
+    }
+
+    @Test
+    void testAcquireWaitsForAFreeSlot() throws Exception {
+        AdaptiveConcurrencyLimiter limiter = newLimiter(1, 1, 1);
+        limiter.acquire();
+
+        Future<?> waiting = executor.submit(limiter::acquire);
+        assertThrows(TimeoutException.class, () -> waiting.get(100, TimeUnit.MILLISECONDS));
+
+        limiter.release();
+        waiting.get(5, TimeUnit.SECONDS);
+        assertEquals(1, limiter.getInFlight());
+    }
+
+    private static AdaptiveConcurrencyLimiter newLimiter(int initialLimit, int minLimit, int maxLimit) {
+        return new AdaptiveConcurrencyLimiter(initialLimit, minLimit, maxLimit, 2.0, new SimpleMeterRegistry());
+    }
+}
@@ -0,0 +1,231 @@
+package com.challenge.services;
+
+import com.challenge.exceptions.ExternalApiException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * The scheduler reads time from a fake clock, so tokens only refill when a test moves it forward.
+ */
+@ExtendWith(MockitoExtension.class)
+class DiscogsRequestSchedulerTest {
+
+    //one token every 100ms of fake time
+    private static final int REQUESTS_PER_MINUTE = 600;
+
+    @Mock
+    private ObjectProvider<RatePermitLedger> ledgerProvider;
+
+    private final AtomicLong clock = new AtomicLong();
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void testContendedPermitsAreSharedByWeight() throws Exception {
+        DiscogsRequestScheduler scheduler = newScheduler(10);
+        for (int i = 0; i < 10; i++) {
+            scheduler.acquire(RequestPriority.BACKGROUND);
+        }
+        for (RequestPriority priority : RequestPriority.values()) {
+            for (int i = 0; i < 10; i++) {
+                executor.submit(() -> scheduler.acquire(priority));
+            }
+        }
+        awaitTrue(() -> totalQueueDepth(scheduler) == 30);
+
+        //ten permits for three waiting classes weighted 6, 3 and 1
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(1050));
+        awaitTrue(() -> totalQueueDepth(scheduler) == 20);
+
+        assertEquals(4, scheduler.queueDepth(RequestPriority.INTERACTIVE_SEARCH));
+        assertEquals(7, scheduler.queueDepth(RequestPriority.INTERACTIVE_DISCOGRAPHY));
+        assertEquals(9, scheduler.queueDepth(RequestPriority.BACKGROUND));
+    }
+
+    @Test
+    void testTokensRefillUpToTheBurst() {
+        DiscogsRequestScheduler scheduler = newScheduler(2);
+        assertTrue(scheduler.hasSpareCapacity());
+        scheduler.acquire(RequestPriority.INTERACTIVE_SEARCH);
+        scheduler.acquire(RequestPriority.INTERACTIVE_SEARCH);
+        assertFalse(scheduler.hasSpareCapacity());
+
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(50));
+        assertFalse(scheduler.hasSpareCapacity());
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(60));
+        assertTrue(scheduler.hasSpareCapacity());
+
+        //a long pause does not bank more than the burst
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(10));
+        scheduler.acquire(RequestPriority.BACKGROUND);
+        scheduler.acquire(RequestPriority.BACKGROUND);
+        assertFalse(scheduler.hasSpareCapacity());
+    }
+
+    @Test
+    void testNoSpareCapacityWhileCallersWait() throws Exception {
+        DiscogsRequestScheduler scheduler = newScheduler(1);
+        scheduler.acquire(RequestPriority.BACKGROUND);
+        Future<?> waiting = executor.submit(() -> scheduler.acquire(RequestPriority.INTERACTIVE_SEARCH));
+        awaitTrue(() -> scheduler.queueDepth(RequestPriority.INTERACTIVE_SEARCH) == 1);
+
+        //the token is there, but it belongs to the waiting caller
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(150));
+        assertFalse(scheduler.hasSpareCapacity());
+
+        waiting.get(5, TimeUnit.SECONDS);
+        assertFalse(scheduler.hasSpareCapacity());
+    }
+
+    @Test
+    void testInterruptedCallerLeavesTheQueue() throws Exception {
+        DiscogsRequestScheduler scheduler = newScheduler(1);
+        scheduler.acquire(RequestPriority.BACKGROUND);
+        AtomicReference<Thread> caller = new AtomicReference<>();
+        Future<Exception> waiting = executor.submit(() -> {
+            caller.set(Thread.currentThread());
+            try {
+                scheduler.acquire(RequestPriority.BACKGROUND);
+                return null;
+            } catch (ExternalApiException ex) {
+                assertTrue(Thread.currentThread().isInterrupted());
+                return ex;
+            }
+        });
+        awaitTrue(() -> scheduler.queueDepth(RequestPriority.BACKGROUND) == 1);
+
+        caller.get().interrupt();
+
+        Exception failure = waiting.get(5, TimeUnit.SECONDS);
+        assertNotNull(failure);
+        assertInstanceOf(InterruptedException.class, failure.getCause());
+        assertEquals(0, scheduler.queueDepth(RequestPriority.BACKGROUND));
+        //the interrupted caller took no token
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(150));
+        assertTrue(scheduler.hasSpareCapacity());
+    }
+
+    @Test
+    void testLeasedPermitsAreUsedBeforeLeasingAgain() {
+        FakeLedger ledger = new FakeLedger(3);
+        DiscogsRequestScheduler scheduler = newScheduler(100, ledger);
+
+        for (int i = 0; i < 3; i++) {
+            scheduler.acquire(RequestPriority.INTERACTIVE_SEARCH);
+        }
+        assertEquals(1, ledger.leases.get());
+        assertEquals(5, ledger.lastRequested.get());
+
+        scheduler.acquire(RequestPriority.INTERACTIVE_SEARCH);
+        assertEquals(2, ledger.leases.get());
+    }
+
+    @Test
+    void testPermitsOfAnEarlierWindowAreDropped() {
+        FakeLedger ledger = new FakeLedger(5);
+        DiscogsRequestScheduler scheduler = newScheduler(100, ledger);
+        scheduler.acquire(RequestPriority.BACKGROUND);
+        assertTrue(scheduler.hasSpareCapacity());
+
+        ledger.window.incrementAndGet();
+
+        assertFalse(scheduler.hasSpareCapacity());
+        scheduler.acquire(RequestPriority.BACKGROUND);
+        assertEquals(2, ledger.leases.get());
+    }
+
+    @Test
+    void testExhaustedWindowIsLeasedAgainOnceTheNextOneStarts() throws Exception {
+        FakeLedger ledger = new FakeLedger(0);
+        DiscogsRequestScheduler scheduler = newScheduler(100, ledger);
+
+        Future<?> waiting = executor.submit(() -> scheduler.acquire(RequestPriority.INTERACTIVE_SEARCH));
+        awaitTrue(() -> ledger.leases.get() == 1);
+        Thread.sleep(200);
+        //no new lease attempts before the window the ledger named
+        assertFalse(waiting.isDone());
+        assertEquals(1, ledger.leases.get());
+        assertFalse(scheduler.hasSpareCapacity());
+
+        ledger.permitsPerLease = 5;
+        ledger.window.incrementAndGet();
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(FakeLedger.WINDOW_MILLIS));
+
+        waiting.get(5, TimeUnit.SECONDS);
+        assertEquals(2, ledger.leases.get());
+    }
+
+    private DiscogsRequestScheduler newScheduler(int burst) {
+        return new DiscogsRequestScheduler(REQUESTS_PER_MINUTE, burst, 5, ledgerProvider, new SimpleMeterRegistry(),
+                clock::get);
+    }
+
+    private DiscogsRequestScheduler newScheduler(int burst, RatePermitLedger ledger) {
+        when(ledgerProvider.getIfAvailable()).thenReturn(ledger);
+        return newScheduler(burst);
+    }
+
+    private static int totalQueueDepth(DiscogsRequestScheduler scheduler) {
+        int depth = 0;
+        for (RequestPriority priority : RequestPriority.values()) {
+            depth += scheduler.queueDepth(priority);
+        }
+        return depth;
+    }
+
+    private static void awaitTrue(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "Condition not reached in time");
+            Thread.sleep(10);
+        }
+    }
+
+    private static final class FakeLedger implements RatePermitLedger {
+        private static final long WINDOW_MILLIS = 50;
+
+        private final AtomicInteger leases = new AtomicInteger();
+        private final AtomicInteger lastRequested = new AtomicInteger();
+        private final AtomicLong window = new AtomicLong();
+        private volatile int permitsPerLease;
+
+        private FakeLedger(int permitsPerLease) {
+            this.permitsPerLease = permitsPerLease;
+        }
+
+        @Override
+        public Lease lease(int permits) {
+            leases.incrementAndGet();
+            lastRequested.set(permits);
+            return new Lease(window.get(), Math.min(permits, permitsPerLease));
+        }
+
+        @Override
+        public long currentWindow() {
+            return window.get();
+        }
+
+        @Override
+        public long millisUntilNextWindow() {
+            return WINDOW_MILLIS;
+        }
+    }
+}
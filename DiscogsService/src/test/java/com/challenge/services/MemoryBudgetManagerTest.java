@@ -0,0 +1,119 @@
+package com.challenge.services;
+
+import com.challenge.exceptions.TooManyRequestsException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.OptionalLong;
+import java.util.concurrent.*;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MemoryBudgetManagerTest {
+
+    private static final long BUDGET_BYTES = 100;
+
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+
+    @TempDir
+    Path cgroup;
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void testReservationLargerThanTheBudgetIsCapped() {
+        MemoryBudgetManager memoryBudget = newManager(Duration.ofSeconds(5));
+
+        try (MemoryBudgetManager.Reservation reservation = memoryBudget.reserve(1000)) {
+            assertEquals(BUDGET_BYTES, reservation.getBytes());
+            assertEquals(BUDGET_BYTES, memoryBudget.getReservedBytes());
+        }
+        assertEquals(0, memoryBudget.getReservedBytes());
+    }
+
+    @Test
+    void testReservationsAreGrantedInArrivalOrder() throws Exception {
+        MemoryBudgetManager memoryBudget = newManager(Duration.ofSeconds(5));
+        MemoryBudgetManager.Reservation held = memoryBudget.reserve(80);
+
+        Future<MemoryBudgetManager.Reservation> large = executor.submit(() -> memoryBudget.reserve(50));
+        awaitTrue(() -> memoryBudget.getWaitingCount() == 1);
+        //would fit next to the held bytes, but has to wait behind the larger reservation
+        Future<MemoryBudgetManager.Reservation> small = executor.submit(() -> memoryBudget.reserve(10));
+        awaitTrue(() -> memoryBudget.getWaitingCount() == 2);
+        assertFalse(small.isDone());
+
+        held.close();
+
+        assertEquals(50, large.get(5, TimeUnit.SECONDS).getBytes());
+        assertEquals(10, small.get(5, TimeUnit.SECONDS).getBytes());
+        assertEquals(60, memoryBudget.getReservedBytes());
+    }
+
+    @Test
+    void testExhaustedBudgetIsRejectedAfterTheMaxWait() {
+        MemoryBudgetManager memoryBudget = newManager(Duration.ofMillis(100));
+        MemoryBudgetManager.Reservation held = memoryBudget.reserve(BUDGET_BYTES);
+
+        assertThrows(TooManyRequestsException.class, () -> memoryBudget.reserve(1));
+        assertEquals(0, memoryBudget.getWaitingCount());
+
+        held.close();
+        held.close();
+        assertEquals(0, memoryBudget.getReservedBytes());
+        assertEquals(1, memoryBudget.reserve(1).getBytes());
+    }
+
+    @Test
+    void testContainerLimitIsReadFromTheFirstReadableCgroupFile() throws IOException {
+        Path v2 = cgroup.resolve("memory.max");
+        Path v1 = cgroup.resolve("memory.limit_in_bytes");
+        Files.writeString(v1, "268435456\n");
+
+        //no v2 file, the v1 limit is used
+        assertEquals(OptionalLong.of(268435456), MemoryBudgetManager.containerMemoryLimit(List.of(v2, v1)));
+
+        Files.writeString(v2, "536870912\n");
+        assertEquals(OptionalLong.of(536870912), MemoryBudgetManager.containerMemoryLimit(List.of(v2, v1)));
+
+        Files.writeString(v2, "max\n");
+        assertEquals(OptionalLong.empty(), MemoryBudgetManager.containerMemoryLimit(List.of(v2, v1)));
+    }
+
+    @Test
+    void testUnlimitedOrUnreadableCgroupLimitIsIgnored() throws IOException {
+        Path v1 = cgroup.resolve("memory.limit_in_bytes");
+        Files.writeString(v1, "9223372036854771712\n");
+        assertEquals(OptionalLong.empty(), MemoryBudgetManager.containerMemoryLimit(List.of(v1)));
+
+        Path broken = cgroup.resolve("memory.max");
+        Files.writeString(broken, "not a number\n");
+        Files.writeString(v1, "268435456\n");
+        assertEquals(OptionalLong.of(268435456), MemoryBudgetManager.containerMemoryLimit(List.of(broken, v1)));
+
+        assertEquals(OptionalLong.empty(), MemoryBudgetManager.containerMemoryLimit(List.of()));
+    }
+
+    private static MemoryBudgetManager newManager(Duration maxWait) {
+        return new MemoryBudgetManager(BUDGET_BYTES, 0.3, 1, maxWait, new SimpleMeterRegistry());
+    }
+
+    private static void awaitTrue(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "Condition not reached in time");
+            Thread.sleep(10);
+        }
+    }
+}
@@ -1,9 +1,14 @@
 package com.challenge.api.core;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+
 public class Artist {
 
     private String discogsId;
     private String name;
+    //left out of the response when the count could not be resolved in time
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Long numberOfReleases;
 
     public String getDiscogsId() {
         return discogsId;
@@ -20,4 +25,12 @@ public class Artist {
     public void setName(String name) {
         this.name = name;
     }
+
+    public Long getNumberOfReleases() {
+        return numberOfReleases;
+    }
+
+    public void setNumberOfReleases(Long numberOfReleases) {
+        this.numberOfReleases = numberOfReleases;
+    }
 }
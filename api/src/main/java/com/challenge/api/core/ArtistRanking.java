@@ -0,0 +1,48 @@
+package com.challenge.api.core;
+
+public class ArtistRanking {
+
+    private String discogsId;
+    private String name;
+    private long numberOfReleases;
+    private int activeYears;
+
+    public ArtistRanking(String discogsId, String name, long numberOfReleases, int activeYears) {
+        this.discogsId = discogsId;
+        this.name = name;
+        this.numberOfReleases = numberOfReleases;
+        this.activeYears = activeYears;
+    }
+
+    public String getDiscogsId() {
+        return discogsId;
+    }
+
+    public void setDiscogsId(String discogsId) {
+        this.discogsId = discogsId;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public long getNumberOfReleases() {
+        return numberOfReleases;
+    }
+
+    public void setNumberOfReleases(long numberOfReleases) {
+        this.numberOfReleases = numberOfReleases;
+    }
+
+    public int getActiveYears() {
+        return activeYears;
+    }
+
+    public void setActiveYears(int activeYears) {
+        this.activeYears = activeYears;
+    }
+}
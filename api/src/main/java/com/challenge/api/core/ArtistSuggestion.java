@@ -0,0 +1,38 @@
+package com.challenge.api.core;
+
+public class ArtistSuggestion {
+
+    private String discogsId;
+    private String name;
+    private long numberOfReleases;
+
+    public ArtistSuggestion(String discogsId, String name, long numberOfReleases) {
+        this.discogsId = discogsId;
+        this.name = name;
+        this.numberOfReleases = numberOfReleases;
+    }
+
+    public String getDiscogsId() {
+        return discogsId;
+    }
+
+    public void setDiscogsId(String discogsId) {
+        this.discogsId = discogsId;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public long getNumberOfReleases() {
+        return numberOfReleases;
+    }
+
+    public void setNumberOfReleases(long numberOfReleases) {
+        this.numberOfReleases = numberOfReleases;
+    }
+}
@@ -5,11 +5,16 @@ import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotEmpty;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpResponse;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
 
 import java.util.List;
 import java.util.Map;
@@ -20,7 +25,7 @@ public interface DiscogsService {
 
     @Operation(
             summary = "Search for an artist",
-            description = "Searches the Discogs database for the given artist name, with optional pagination."
+            description = "Searches the Discogs database for the given artist name, with optional pagination. With enrich=true every result also carries its number of releases: the stored album count for stored artists, otherwise the release total listed by Discogs. Counts that cannot be resolved within the time budget are left empty."
     )
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Artists found"),
@@ -31,12 +36,28 @@ public interface DiscogsService {
     List<Artist> searchArtists(
             @PathVariable @NotBlank(message = "Artist name must not be blank") String artistName,
             @RequestParam(defaultValue = "1") @Min(value = 1, message = "Page must be at least 1") int page,
-            @RequestParam(defaultValue = "20") @Min(value = 1, message = "PerPage must be at least 1") int perPage
+            @RequestParam(defaultValue = "20") @Min(value = 1, message = "PerPage must be at least 1") int perPage,
+            @RequestParam(defaultValue = "false") boolean enrich
     ) throws JsonProcessingException;
 
+    @Operation(
+            summary = "Suggest stored artists by name prefix",
+            description = "Returns the stored artists whose normalized name starts with the given prefix, ranked by number of releases. Served from memory, no Discogs call is made."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Suggestions returned"),
+            @ApiResponse(responseCode = "400", description = "Invalid input")
+    })
+    @GetMapping(value = "/search/suggest", produces = "application/json")
+    List<ArtistSuggestion> suggestArtists(
+            @RequestParam @NotBlank(message = "Prefix must not be blank") String prefix,
+            @RequestParam(defaultValue = "10") @Min(value = 1, message = "Limit must be at least 1")
+            @Max(value = 50, message = "Limit must be at most 50") int limit
+    );
+
     @Operation(
             summary = "Get and store artist discography with pagination",
-            description = "Fetches the discography (list of releases) for a specific artist from Discogs, stores it in the database, and returns the list of albums with pagination."
+            description = "Fetches the discography (list of releases) for a specific artist from Discogs, stores it in the database, and returns the list of albums with pagination. Stored artists older than the freshness TTL are served as stored while a background refresh runs; the X-Discography-Age and X-Discography-Refresh headers report the data age in seconds and the refresh outcome."
     )
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Discography retrieved and stored successfully"),
@@ -48,7 +69,109 @@ public interface DiscogsService {
             @PathVariable @NotBlank(message = "Artist ID must not be blank") String artistId,
             @RequestParam(value = "sorted", defaultValue = "false") boolean sorted,
             @RequestParam(defaultValue = "1") @Min(value = 1, message = "Page must be at least 1") int page,
-            @RequestParam(defaultValue = "20") @Min(value = 1, message = "PerPage must be at least 1") int perPage
+            @RequestParam(defaultValue = "20") @Min(value = 1, message = "PerPage must be at least 1") int perPage,
+            ServerHttpResponse response
+    );
+
+    @Operation(
+            summary = "Get and store artist discography without a total count",
+            description = "Same as the paginated discography, selected with mode=slice. Only tells whether a next page exists, so no album count is needed."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Discography retrieved and stored successfully"),
+            @ApiResponse(responseCode = "404", description = "Artist not found"),
+            @ApiResponse(responseCode = "400", description = "Invalid artist ID provided")
+    })
+    @PostMapping(value = "/artists/{artistId}/discography", params = "mode=slice", produces = "application/json")
+    Slice<Album> getAndStoreArtistDiscographySlice(
+            @PathVariable @NotBlank(message = "Artist ID must not be blank") String artistId,
+            @RequestParam(value = "sorted", defaultValue = "false") boolean sorted,
+            @RequestParam(defaultValue = "1") @Min(value = 1, message = "Page must be at least 1") int page,
+            @RequestParam(defaultValue = "20") @Min(value = 1, message = "PerPage must be at least 1") int perPage,
+            ServerHttpResponse response
+    );
+
+    @Operation(
+            summary = "Submit an asynchronous discography ingestion",
+            description = "Queues the download and storage of an artist discography and returns immediately with a job that can be polled or followed as Server-Sent Events."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "202", description = "Ingestion accepted"),
+            @ApiResponse(responseCode = "400", description = "Invalid artist ID provided"),
+            @ApiResponse(responseCode = "429", description = "Ingestion queue is full")
+    })
+    @PostMapping(value = "/artists/{artistId}/discography/jobs", produces = "application/json")
+    @ResponseStatus(HttpStatus.ACCEPTED)
+    IngestionJob submitDiscographyIngestion(
+            @PathVariable @NotBlank(message = "Artist ID must not be blank") String artistId
+    );
+
+    @Operation(
+            summary = "Rebuild stored discographies from the release page archive",
+            description = "Queues a job that rebuilds the stored albums of every archived artist from the archived Discogs release pages with the current mapping rules. No Discogs call is made."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "202", description = "Reprocessing accepted"),
+            @ApiResponse(responseCode = "404", description = "Release page archive is not enabled"),
+            @ApiResponse(responseCode = "429", description = "Ingestion queue is full")
+    })
+    @PostMapping(value = "/archive/reprocessing", produces = "application/json")
+    @ResponseStatus(HttpStatus.ACCEPTED)
+    IngestionJob reprocessReleaseArchive();
+
+    @Operation(
+            summary = "Get the status of an ingestion job",
+            description = "Returns the current progress of an asynchronous discography ingestion."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Job found"),
+            @ApiResponse(responseCode = "404", description = "Job not found")
+    })
+    @GetMapping(value = "/ingestions/{jobId}", produces = "application/json")
+    IngestionJob getIngestionJob(
+            @PathVariable @NotBlank(message = "Job ID must not be blank") String jobId
+    );
+
+    @Operation(
+            summary = "Follow the progress of an ingestion job",
+            description = "Streams the progress of an asynchronous discography ingestion as Server-Sent Events until the job finishes."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Progress stream opened"),
+            @ApiResponse(responseCode = "404", description = "Job not found")
+    })
+    @GetMapping(value = "/ingestions/{jobId}/events", produces = "text/event-stream")
+    Flux<IngestionJob> streamIngestionJob(
+            @PathVariable @NotBlank(message = "Job ID must not be blank") String jobId
+    );
+
+    @Operation(
+            summary = "Stream a stored artist discography",
+            description = "Streams every stored album of an artist as newline-delimited JSON. The artist must have been stored before through the discography endpoint."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Discography streamed"),
+            @ApiResponse(responseCode = "404", description = "Artist not stored"),
+            @ApiResponse(responseCode = "400", description = "Invalid artist ID provided")
+    })
+    @GetMapping(value = "/artists/{artistId}/discography/stream", produces = "application/x-ndjson")
+    Flux<Album> streamArtistDiscography(
+            @PathVariable @NotBlank(message = "Artist ID must not be blank") String artistId
+    );
+
+    @Operation(
+            summary = "Rank the stored artists",
+            description = "Returns the stored artists with the most releases (by=releases) or the most active years (by=activeYears). Served from memory, no query is run."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Ranking returned"),
+            @ApiResponse(responseCode = "400", description = "Invalid input")
+    })
+    @GetMapping(value = "/artists/top", produces = "application/json")
+    List<ArtistRanking> topArtists(
+            @RequestParam(defaultValue = "releases") String by,
+            @RequestParam(defaultValue = "10") @Min(value = 1, message = "Limit must be at least 1")
+            @Max(value = 100, message = "Limit must be at most 100") int limit
     );
 
     @Operation(
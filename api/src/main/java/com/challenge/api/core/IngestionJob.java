@@ -0,0 +1,89 @@
+package com.challenge.api.core;
+
+public class IngestionJob {
+
+    private String jobId;
+    private String artistId;
+    private IngestionJobStatus status;
+    private int totalPages;
+    private int pagesFetched;
+    private int releasesStored;
+    private int rateLimitWaits;
+    private String error;
+
+    public IngestionJob(String jobId, String artistId, IngestionJobStatus status, int totalPages, int pagesFetched,
+                        int releasesStored, int rateLimitWaits, String error) {
+        this.jobId = jobId;
+        this.artistId = artistId;
+        this.status = status;
+        this.totalPages = totalPages;
+        this.pagesFetched = pagesFetched;
+        this.releasesStored = releasesStored;
+        this.rateLimitWaits = rateLimitWaits;
+        this.error = error;
+    }
+
+    public String getJobId() {
+        return jobId;
+    }
+
+    public void setJobId(String jobId) {
+        this.jobId = jobId;
+    }
+
+    public String getArtistId() {
+        return artistId;
+    }
+
+    public void setArtistId(String artistId) {
+        this.artistId = artistId;
+    }
+
+    public IngestionJobStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(IngestionJobStatus status) {
+        this.status = status;
+    }
+
+    public int getTotalPages() {
+        return totalPages;
+    }
+
+    public void setTotalPages(int totalPages) {
+        this.totalPages = totalPages;
+    }
+
+    public int getPagesFetched() {
+        return pagesFetched;
+    }
+
+    public void setPagesFetched(int pagesFetched) {
+        this.pagesFetched = pagesFetched;
+    }
+
+    public int getReleasesStored() {
+        return releasesStored;
+    }
+
+    public void setReleasesStored(int releasesStored) {
+        this.releasesStored = releasesStored;
+    }
+
+    public int getRateLimitWaits() {
+        return rateLimitWaits;
+    }
+
+    public void setRateLimitWaits(int rateLimitWaits) {
+        this.rateLimitWaits = rateLimitWaits;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+}
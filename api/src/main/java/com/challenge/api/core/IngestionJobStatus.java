@@ -0,0 +1,8 @@
+package com.challenge.api.core;
+
+public enum IngestionJobStatus {
+    QUEUED,
+    RUNNING,
+    COMPLETED,
+    FAILED
+}
@@ -7,6 +7,7 @@ import com.challenge.exceptions.TooManyRequestsException;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpStatus;
@@ -19,9 +20,10 @@ import reactor.core.publisher.Mono;
 public class WebClientConfig {
 
     @Bean
-    public WebClient webClient(WebClient.Builder builder) {
+    public WebClient webClient(WebClient.Builder builder,
+                               @Value("${discogs.api.base-url:https://api.discogs.com}") String baseUrl) {
         return builder
-                .baseUrl("https://api.discogs.com")
+                .baseUrl(baseUrl)
                 .filter(errorHandlingFilter())
                 .build();
     }
@@ -0,0 +1,121 @@
+package com.challenge.services;
+
+import com.challenge.exceptions.ExternalApiException;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * AIMD limit on how many release pages are fetched from Discogs at the same time.
+ * The limit grows by roughly one slot per round of successful calls while latency stays close to the
+ * lowest latency seen, and is cut multiplicatively on a 429 or when latency inflates past the tolerance.
+ * The no-load latency drifts slowly upwards so a permanently slower upstream is eventually accepted.
+ */
+@Component
+public class AdaptiveConcurrencyLimiter {
+
+    private static final double RATE_LIMITED_BACKOFF = 0.5;
+    private static final double LATENCY_BACKOFF = 0.9;
+    private static final double NO_LOAD_DRIFT = 1.001;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double latencyTolerance;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition slotReleased = lock.newCondition();
+
+    private double limit;
+    private int inFlight;
+    private double noLoadLatencyNanos = Double.MAX_VALUE;
+
+    public AdaptiveConcurrencyLimiter(@Value("${discogs.api.concurrency.initial-limit:5}") int initialLimit,
+                                      @Value("${discogs.api.concurrency.min-limit:1}") int minLimit,
+                                      @Value("${discogs.api.concurrency.max-limit:20}") int maxLimit,
+                                      @Value("${discogs.api.concurrency.latency-tolerance:2.0}") double latencyTolerance,
+                                      MeterRegistry meterRegistry) {
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.latencyTolerance = latencyTolerance;
+        this.limit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+
+        Gauge.builder("discogs.client.concurrency.limit", this, AdaptiveConcurrencyLimiter::getLimit)
+                .register(meterRegistry);
+        Gauge.builder("discogs.client.concurrency.in-flight", this, AdaptiveConcurrencyLimiter::getInFlight)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Blocks until a fetch slot is free. Every successful call must be paired with {@link #release()}.
+     */
+    public void acquire() {
+        lock.lock();
+        try {
+            while (inFlight >= (int) limit) {
+                slotReleased.await();
+            }
+            inFlight++;
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new ExternalApiException("Interrupted while waiting for a Discogs fetch slot", ex);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void release() {
+        lock.lock();
+        try {
+            inFlight--;
+            slotReleased.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Feeds the latency of one Discogs call back into the limit.
+     */
+    public void onSample(long latencyNanos, boolean rateLimited) {
+        lock.lock();
+        try {
+            if (rateLimited) {
+                limit = Math.max(minLimit, limit * RATE_LIMITED_BACKOFF);
+                return;
+            }
+
+            noLoadLatencyNanos = Math.min(noLoadLatencyNanos * NO_LOAD_DRIFT, latencyNanos);
+            if (latencyNanos > noLoadLatencyNanos * latencyTolerance) {
+                limit = Math.max(minLimit, limit * LATENCY_BACKOFF);
+            } else if (inFlight >= (int) limit - 1) {
+                //only grow while the current limit is actually being used
+                limit = Math.min(maxLimit, limit + 1.0 / limit);
+            }
+            slotReleased.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getLimit() {
+        lock.lock();
+        try {
+            return (int) limit;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getInFlight() {
+        lock.lock();
+        try {
+            return inFlight;
+        } finally {
+            lock.unlock();
+        }
+    }
+}
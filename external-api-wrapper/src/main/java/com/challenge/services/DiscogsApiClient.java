@@ -3,13 +3,20 @@ package com.challenge.services;
 import com.challenge.exceptions.ExternalApiException;
 import com.challenge.exceptions.GeneralApplicationException;
 import com.challenge.exceptions.TooManyRequestsException;
+import com.challenge.logging.CorrelationId;
+import com.challenge.logging.LogMarkers;
 import com.challenge.model.DiscogsAlbumResponse;
 import com.challenge.model.DiscogsArtistResponse;
 import com.challenge.model.DiscogsSearchArtistResponse;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 import org.springframework.web.reactive.function.client.WebClient;
 import org.springframework.web.reactive.function.client.WebClientResponseException;
@@ -21,6 +28,8 @@ import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
 import java.util.function.Supplier;
 import java.util.stream.IntStream;
 
@@ -41,18 +50,43 @@ public class DiscogsApiClient {
     private final String token;
     private static final int MAX_RETRIES = 3;
 
-    private static final int THREADS_NUMBER = 5;
-    private static final int PAGE_SIZE = 50;
+    private final int releasesPerPage;
 
     private final ObjectMapper objectMapper;
+    private final DiscogsRequestScheduler requestScheduler;
+    private final AdaptiveConcurrencyLimiter concurrencyLimiter;
+    private final MemoryBudgetManager memoryBudget;
+    private final RawResponseCache responseCache;
+    private final ReleasePageArchive pageArchive;
+
+    //shared by all ingestions, the number of busy threads is bounded by the concurrency limiter
+    private final ExecutorService fetchExecutor;
 
     public DiscogsApiClient(WebClient webClient,
                             @Value("${discogs.api.token}") String token,
                             @Value("${discogs.api.database-search-path}") String databaseSearchPath,
                             @Value("${discogs.api.artists-releases-path}") String artistsReleasesPath,
                             @Value("${discogs.api.artist-details-path}") String artistDetailsPath,
-                            ObjectMapper objectMapper) {
+                            @Value("${discogs.api.releases-per-page:100}") int releasesPerPage,
+                            ObjectMapper objectMapper,
+                            DiscogsRequestScheduler requestScheduler,
+                            AdaptiveConcurrencyLimiter concurrencyLimiter,
+                            MemoryBudgetManager memoryBudget,
+                            RawResponseCache responseCache,
+                            ObjectProvider<ReleasePageArchive> pageArchiveProvider) {
         this.webClient = webClient;
+        this.memoryBudget = memoryBudget;
+        this.responseCache = responseCache;
+        this.pageArchive = pageArchiveProvider.getIfAvailable();
+        this.requestScheduler = requestScheduler;
+        this.concurrencyLimiter = concurrencyLimiter;
+        this.releasesPerPage = releasesPerPage;
+        AtomicInteger threadCounter = new AtomicInteger();
+        this.fetchExecutor = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "discogs-fetch-" + threadCounter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
         this.token = token;
         this.objectMapper = objectMapper;
         this.databaseSearchPath = databaseSearchPath;
@@ -61,6 +95,11 @@ public class DiscogsApiClient {
     }
 
     public DiscogsSearchArtistResponse searchArtist(String artistName, int page, int perPage) throws JsonProcessingException {
+        return searchArtist(artistName, page, perPage, RequestPriority.INTERACTIVE_SEARCH);
+    }
+
+    public DiscogsSearchArtistResponse searchArtist(String artistName, int page, int perPage, RequestPriority priority)
+            throws JsonProcessingException {
         if (artistName == null || artistName.isBlank()) {
             throw new IllegalArgumentException("Artist name must not be null or empty");
         }
@@ -74,161 +113,326 @@ public class DiscogsApiClient {
                 String.format(QUERY_PAGE, page),
                 String.format(QUERY_PER_PAGE, perPage),
                 token);
-        return fetchAndDeserialize(url, DiscogsSearchArtistResponse.class);
+        return fetchAndDeserialize(url, DiscogsSearchArtistResponse.class, priority, RawResponseCache.Endpoint.SEARCH);
     }
 
-    public DiscogsAlbumResponse getArtistDiscography(String artistId) throws JsonProcessingException {
+    /**
+     * Fetches the release pages of an artist and hands each one to the handler as soon as it arrives.
+     * Pages in {@code pagesToSkip} are neither requested nor handed over again, except that the first page is
+     * always requested because it carries the pagination. Each page buffer is reserved against the memory budget
+     * before it is requested. When a page fails, the pages already in flight are still handed over before the
+     * failure is thrown, so a later call only has to fetch what is missing.
+     *
+     * @return the total number of pages
+     */
+    public int fetchArtistReleasePages(String artistId, RequestPriority priority, IngestionProgressListener listener,
+                                       Set<Integer> pagesToSkip, ReleasePageHandler handler) throws JsonProcessingException {
         if (artistId == null || artistId.isBlank()) {
             throw new IllegalArgumentException("Artist ID must not be null or empty");
         }
 
-        String firstPageUrl = String.format("%s?%s&%s&token=%s",
-                String.format(artistsReleasesPath, artistId),
-                String.format(QUERY_PAGE, 1),
-                String.format(QUERY_PER_PAGE, PAGE_SIZE),
-                token);
+        //logs a single summary of the whole fetch, successful or not, rather than a line per page
+        FetchSummary summary = new FetchSummary(listener);
+        boolean completed = false;
+        try {
+            int totalPages = fetchFirstAndRemainingPages(artistId, priority, summary, pagesToSkip, handler);
+            pruneArchive(artistId, totalPages);
+            completed = true;
+            return totalPages;
+        } finally {
+            //one line per fetch with a constant format, the rate limit would otherwise drop it in busy periods
+            logger.info(LogMarkers.UNTHROTTLED, "Release fetch summary: artist={} pages={} releases={} retries={} "
+                            + "bytes={} durationMs={} outcome={}", artistId, summary.getPages(), summary.getReleases(),
+                    summary.getRetries(), summary.getBytes(), summary.getElapsedMillis(),
+                    completed ? "completed" : "failed");
+        }
+    }
 
-        List<DiscogsAlbumResponse.Release> allReleases = new ArrayList<>();
+    private int fetchFirstAndRemainingPages(String artistId, RequestPriority priority,
+                                            IngestionProgressListener listener, Set<Integer> pagesToSkip,
+                                            ReleasePageHandler handler)
+            throws JsonProcessingException {
+        int totalPages;
+        try (MemoryBudgetManager.Reservation ignored = memoryBudget.reserve(memoryBudget.estimateBytes(releasesPerPage))) {
+            String jsonResponse = fetchReleasePageWithRetry(artistId, 1, MAX_RETRIES, priority, listener);
+            DiscogsAlbumResponse firstPageResponse = objectMapper.readValue(jsonResponse, DiscogsAlbumResponse.class);
+
+            if (firstPageResponse == null || firstPageResponse.getReleases() == null) {
+                throw new ExternalApiException("No valid album data returned from Discogs API");
+            }
 
-        String jsonResponse = fetchRawResponseWithRetry(firstPageUrl, MAX_RETRIES);
-        DiscogsAlbumResponse firstPageResponse = objectMapper.readValue(jsonResponse, DiscogsAlbumResponse.class);
+            JsonNode paginationNode = getPaginationNode(jsonResponse);
+            totalPages = paginationNode.get("pages").asInt();
+            logger.debug("Total pages: {}, already fetched: {}", totalPages, pagesToSkip.size());
+            listener.onTotalPages(totalPages);
 
-        if (firstPageResponse == null || firstPageResponse.getReleases() == null) {
-            return new DiscogsAlbumResponse();
+            if (!pagesToSkip.contains(1)) {
+                handler.onPage(1, totalPages, firstPageResponse);
+            }
+            listener.onPageFetched(firstPageResponse.getReleases().size());
         }
 
-        allReleases.addAll(firstPageResponse.getReleases());
-        logger.info("Fetched releases from first page: {}", firstPageResponse.getReleases().size());
-
-        int totalPages = getTotalPagesFromResponse(jsonResponse);
-        logger.info("Total pages: {}", totalPages);
-
-        List<String> urls = IntStream.rangeClosed(2, totalPages)
-                .mapToObj(page -> String.format("%s?%s&%s&token=%s",
-                        String.format(artistsReleasesPath, artistId),
-                        String.format(QUERY_PAGE, page),
-                        String.format(QUERY_PER_PAGE, PAGE_SIZE),
-                        token))
+        List<Integer> missingPages = IntStream.rangeClosed(2, totalPages)
+                .filter(page -> !pagesToSkip.contains(page))
+                .boxed()
                 .toList();
-        logger.info("Generated URLs for additional pages: {}", urls);
-
 
-        List<DiscogsAlbumResponse.Release> additionalReleases = fetchReleasesInParallel(urls);
-        logger.info("Fetched additional releases: {}", additionalReleases.size());
+        fetchPagesInParallel(artistId, missingPages, totalPages, priority, listener, handler);
 
-        allReleases.addAll(additionalReleases);
-
-        DiscogsAlbumResponse finalResponse = new DiscogsAlbumResponse();
-        finalResponse.setReleases(allReleases);
-        logger.info("Total releases in final response: {}", allReleases.size());
-
-        return finalResponse;
+        return totalPages;
     }
 
     public DiscogsArtistResponse.Artist getArtistDetails(String artistId) throws JsonProcessingException {
+        return getArtistDetails(artistId, RequestPriority.INTERACTIVE_DISCOGRAPHY);
+    }
+
+    public DiscogsArtistResponse.Artist getArtistDetails(String artistId, RequestPriority priority) throws JsonProcessingException {
         String url = String.format("%s?token=%s",
                 String.format(artistDetailsPath, artistId),
                 token);
 
-        return fetchAndDeserialize(url, DiscogsArtistResponse.Artist.class);
+        return fetchAndDeserialize(url, DiscogsArtistResponse.Artist.class, priority, RawResponseCache.Endpoint.ARTIST);
     }
 
-    private List<DiscogsAlbumResponse.Release> fetchReleasesInParallel(List<String> urls) {
-        ExecutorService executor = Executors.newFixedThreadPool(THREADS_NUMBER);
-        List<Future<List<DiscogsAlbumResponse.Release>>> futures = new ArrayList<>();
+    /**
+     * Total number of releases Discogs lists for the artist, of every release type. Only a one-release page
+     * is requested to read it from the pagination, and there are no retries so callers keep their time budget.
+     */
+    public long getArtistReleaseCount(String artistId, RequestPriority priority) {
+        String url = String.format("%s?%s&%s&token=%s",
+                String.format(artistsReleasesPath, artistId),
+                String.format(QUERY_PAGE, 1),
+                String.format(QUERY_PER_PAGE, 1),
+                token);
+        return getPaginationNode(fetchBody(url, priority, RawResponseCache.Endpoint.RELEASES)).path("items").asLong();
+    }
 
-        try {
-            for (String url : urls) {
-                futures.add(executor.submit(() -> {
-                    DiscogsAlbumResponse response = fetchReleasesFromUrlWithRetry(url, 3);
-                    return response != null ? response.getReleases() : List.of();
-                }));
+    public int getReleasesPerPage() {
+        return releasesPerPage;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        fetchExecutor.shutdownNow();
+    }
+
+    private void fetchPagesInParallel(String artistId, List<Integer> pages, int totalPages, RequestPriority priority,
+                                      IngestionProgressListener listener, ReleasePageHandler handler) {
+        List<Future<?>> futures = new ArrayList<>();
+
+        RuntimeException dispatchFailure = null;
+
+        for (int page : pages) {
+            //a page is only handed to a thread once its buffer fits the memory budget and a slot is free,
+            //so a failed page stops the remaining ones
+            MemoryBudgetManager.Reservation reservation;
+            try {
+                reservation = memoryBudget.reserve(memoryBudget.estimateBytes(releasesPerPage));
+            } catch (RuntimeException ex) {
+                dispatchFailure = ex;
+                break;
+            }
+            try {
+                concurrencyLimiter.acquire();
+            } catch (RuntimeException ex) {
+                reservation.close();
+                dispatchFailure = ex;
+                break;
+            }
+            if (futures.stream().anyMatch(this::failed)) {
+                concurrencyLimiter.release();
+                reservation.close();
+                break;
             }
+            futures.add(fetchExecutor.submit(CorrelationId.wrap(() -> {
+                try (reservation) {
+                    DiscogsAlbumResponse response = fetchReleasesWithRetry(
+                            artistId, page, MAX_RETRIES, priority, listener);
+                    if (response == null || response.getReleases() == null) {
+                        response = new DiscogsAlbumResponse();
+                        response.setReleases(List.of());
+                    }
+                    handler.onPage(page, totalPages, response);
+                    listener.onPageFetched(response.getReleases().size());
+                } finally {
+                    concurrencyLimiter.release();
+                }
+            })));
+        }
 
-            List<DiscogsAlbumResponse.Release> releases = new ArrayList<>();
-            for (Future<List<DiscogsAlbumResponse.Release>> future : futures) {
-                try {
-                    releases.addAll(future.get());
-                } catch (ExecutionException ex) {
+        //pages in flight are left to finish so whatever they fetched is handed over before failing
+        ExternalApiException failure = null;
+        for (Future<?> future : futures) {
+            try {
+                future.get();
+            } catch (ExecutionException ex) {
+                if (failure == null) {
                     if (ex.getCause() instanceof TooManyRequestsException) {
-                        logger.error("{}: {}",ERROR_TOO_MANY_REQUESTS, ex.getCause().getMessage());
+                        logger.error("{}: {}", ERROR_TOO_MANY_REQUESTS, ex.getCause().getMessage());
                     } else {
                         logger.error("Error fetching releases in batch: {}", ex.getCause().getMessage());
                     }
-                    throw new ExternalApiException("Batch processing failed for Discogs API", ex.getCause());
-                } catch (InterruptedException ex) {
-                    Thread.currentThread().interrupt();
-                    throw new ExternalApiException("Batch processing interrupted", ex);
+                    failure = new ExternalApiException("Batch processing failed for Discogs API", ex.getCause());
                 }
+            } catch (InterruptedException ex) {
+                futures.forEach(pending -> pending.cancel(true));
+                Thread.currentThread().interrupt();
+                throw new ExternalApiException("Batch processing interrupted", ex);
             }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+        if (dispatchFailure != null) {
+            throw dispatchFailure;
+        }
+    }
 
-            return releases;
-        } finally {
-            executor.shutdown();
+    private String releasesPageUrl(String artistId, int page) {
+        return String.format("%s?%s&%s&token=%s",
+                String.format(artistsReleasesPath, artistId),
+                String.format(QUERY_PAGE, page),
+                String.format(QUERY_PER_PAGE, releasesPerPage),
+                token);
+    }
+
+    private void archivePage(String artistId, int page, String body) {
+        if (pageArchive != null && body != null) {
+            pageArchive.store(artistId, page, releasesPerPage, body);
         }
     }
 
+    //only a completed fetch knows the current page size and last page of the discography
+    private void pruneArchive(String artistId, int totalPages) {
+        if (pageArchive != null) {
+            pageArchive.retainOnly(artistId, releasesPerPage, totalPages);
+        }
+    }
 
-    private <T> T fetchAndDeserialize(String url, Class<T> responseType) throws JsonProcessingException {
-        String jsonResponse = webClient.get()
-                .uri(url)
-                .retrieve()
-                .bodyToMono(String.class)
-                .block();
+    private boolean failed(Future<?> future) {
+        return future.state() == Future.State.FAILED;
+    }
+
+
+    private <T> T fetchAndDeserialize(String url, Class<T> responseType, RequestPriority priority,
+                                      RawResponseCache.Endpoint endpoint) throws JsonProcessingException {
+        String jsonResponse = fetchBody(url, priority, endpoint);
         return objectMapper.readValue(jsonResponse, responseType);
     }
 
-    private int getTotalPagesFromResponse(String jsonResponse) {
+    /**
+     * Serves fresh cached bodies without calling Discogs. Stale bodies with validators are revalidated with a
+     * conditional request, and a 304 reuses the cached body.
+     */
+    private String fetchBody(String url, RequestPriority priority, RawResponseCache.Endpoint endpoint) {
+        return fetchBody(url, priority, endpoint, body -> { });
+    }
+
+    /**
+     * Same as above, and hands the body to {@code onDownloaded} when it was actually downloaded from Discogs,
+     * not when it was served from the cache or confirmed unchanged by a 304.
+     */
+    private String fetchBody(String url, RequestPriority priority, RawResponseCache.Endpoint endpoint,
+                             Consumer<String> onDownloaded) {
+        String cacheKey = RawResponseCache.keyOf(url);
+        RawResponseCache.CachedResponse cached = responseCache.get(cacheKey);
+        if (cached != null && cached.isFresh()) {
+            responseCache.recordHit();
+            return cached.getBody();
+        }
+        RawResponseCache.CachedResponse revalidatable = cached != null && cached.hasValidators() ? cached : null;
+
+        requestScheduler.acquire(priority);
+        long startNanos = System.nanoTime();
+        try {
+            ResponseEntity<String> response = webClient.get()
+                    .uri(url)
+                    .headers(headers -> {
+                        if (revalidatable != null && revalidatable.getEtag() != null) {
+                            headers.set(HttpHeaders.IF_NONE_MATCH, revalidatable.getEtag());
+                        }
+                        if (revalidatable != null && revalidatable.getLastModified() != null) {
+                            headers.set(HttpHeaders.IF_MODIFIED_SINCE, revalidatable.getLastModified());
+                        }
+                    })
+                    .retrieve()
+                    .toEntity(String.class)
+                    .block();
+            concurrencyLimiter.onSample(System.nanoTime() - startNanos, false);
+
+            if (response != null && response.getStatusCode().value() == HttpStatus.NOT_MODIFIED.value()
+                    && revalidatable != null) {
+                responseCache.markRevalidated(cacheKey, endpoint, revalidatable);
+                return revalidatable.getBody();
+            }
+
+            responseCache.recordMiss();
+            String body = response != null ? response.getBody() : null;
+            if (body != null) {
+                responseCache.put(cacheKey, endpoint, body, response.getHeaders().getETag(),
+                        response.getHeaders().getFirst(HttpHeaders.LAST_MODIFIED));
+                onDownloaded.accept(body);
+            }
+            return body;
+        } catch (WebClientResponseException.TooManyRequests | TooManyRequestsException ex) {
+            concurrencyLimiter.onSample(System.nanoTime() - startNanos, true);
+            throw ex;
+        }
+    }
+
+    private JsonNode getPaginationNode(String jsonResponse) {
         try {
             JsonNode rootNode = objectMapper.readTree(jsonResponse);
             JsonNode paginationNode = rootNode.get("pagination");
             if (paginationNode == null || paginationNode.get("pages") == null) {
                 throw new ExternalApiException(ERROR_PAGINATION_NOT_FOUND);
             }
-            return paginationNode.get("pages").asInt();
+            return paginationNode;
         } catch (JsonProcessingException ex) {
             throw new ExternalApiException("Failed to parse total pages from JSON response.", ex);
         }
     }
 
-    private String fetchRawResponseWithRetry(String url, int retries) {
-        return executeWithRetries(
-                () -> webClient.get()
-                        .uri(url)
-                        .retrieve()
-                        .bodyToMono(String.class)
-                        .block(),
-                retries,
-                "fetching raw response from URL: " + url
-        );
-    }
-
-    private DiscogsAlbumResponse fetchReleasesFromUrlWithRetry(String url, int retries) {
+    private String fetchReleasePageWithRetry(String artistId, int page, int retries, RequestPriority priority,
+                                             IngestionProgressListener listener) {
+        String url = releasesPageUrl(artistId, page);
         return executeWithRetries(
                 () -> {
-                    try {
-                        return fetchAndDeserialize(url, DiscogsAlbumResponse.class);
-                    } catch (JsonProcessingException e) {
-                        throw new GeneralApplicationException(e);
-                    }
+                    String body = fetchBody(url, priority, RawResponseCache.Endpoint.RELEASES,
+                            downloaded -> archivePage(artistId, page, downloaded));
+                    listener.onBodyReceived(body != null ? body.length() : 0);
+                    return body;
                 },
                 retries,
-                "fetching releases from URL: " + url
+                "fetching releases from URL: " + RawResponseCache.keyOf(url),
+                listener
         );
     }
 
-    private <T> T executeWithRetries(Supplier<T> action, int retries, String operationDescription) {
+    private DiscogsAlbumResponse fetchReleasesWithRetry(String artistId, int page, int retries,
+                                                        RequestPriority priority, IngestionProgressListener listener) {
+        String body = fetchReleasePageWithRetry(artistId, page, retries, priority, listener);
+        try {
+            return objectMapper.readValue(body, DiscogsAlbumResponse.class);
+        } catch (JsonProcessingException e) {
+            throw new GeneralApplicationException(e);
+        }
+    }
+
+    private <T> T executeWithRetries(Supplier<T> action, int retries, String operationDescription,
+                                     IngestionProgressListener listener) {
         int attempt = 0;
         while (attempt <= retries) {
             try {
                 return action.get();
-            } catch (WebClientResponseException.TooManyRequests ex) {
+            } catch (WebClientResponseException.TooManyRequests | TooManyRequestsException ex) {
                 attempt++;
                 if (attempt > retries) {
                     throw new TooManyRequestsException("Rate limit exceeded after " + retries + " retries for " + operationDescription, ex);
                 }
                 int backoff = (int) Math.pow(2, attempt) * 1000;
                 logger.warn("429 Too Many Requests. Retrying in {}ms... (Attempt {})", backoff, attempt);
+                listener.onRateLimitWait(backoff);
                 try {
                     Thread.sleep(backoff);
                 } catch (InterruptedException e) {
@@ -0,0 +1,250 @@
+package com.challenge.services;
+
+import com.challenge.exceptions.ExternalApiException;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+/**
+ * Central gate for every call made to Discogs. Callers wait in one queue per {@link RequestPriority}
+ * and are released against a shared token bucket, choosing between the waiting classes with a smooth
+ * weighted round robin. While several classes are waiting each gets a share of the permits proportional to its
+ * weight, so background work keeps a small share even under interactive load, and a class alone in the queue
+ * gets every permit.
+ * When a {@link RatePermitLedger} is configured, every permit must also be covered by a lease from it;
+ * the lease is taken by one waiting caller with the lock released, so the ledger round trip never blocks
+ * the queue.
+ */
+@Component
+public class DiscogsRequestScheduler {
+
+    private static final long LEASE_WAIT_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private final double tokensPerNano;
+    private final double burst;
+    private final RatePermitLedger ledger;
+    private final int leaseSize;
+    private final LongSupplier nanoClock;
+
+    private final ReentrantLock lock = new ReentrantLock(true);
+    private final Condition dispatched = lock.newCondition();
+    private final Map<RequestPriority, Queue<Waiter>> queues = new EnumMap<>(RequestPriority.class);
+    private final Map<RequestPriority, Integer> currentWeights = new EnumMap<>(RequestPriority.class);
+    private final Map<RequestPriority, Timer> waitTimers = new EnumMap<>(RequestPriority.class);
+
+    private double tokens;
+    private long lastRefillNanos;
+
+    private int leasedPermits;
+    private long leasedWindow = -1;
+    private long nextLeaseAttemptNanos;
+    private boolean leaseInFlight;
+
+    @Autowired
+    public DiscogsRequestScheduler(@Value("${discogs.api.rate-limit.requests-per-minute:60}") int requestsPerMinute,
+                                   @Value("${discogs.api.rate-limit.burst:5}") int burst,
+                                   @Value("${discogs.api.rate-limit.distributed.lease-size:5}") int leaseSize,
+                                   ObjectProvider<RatePermitLedger> ledgerProvider,
+                                   MeterRegistry meterRegistry) {
+        this(requestsPerMinute, burst, leaseSize, ledgerProvider, meterRegistry, System::nanoTime);
+    }
+
+    DiscogsRequestScheduler(int requestsPerMinute, int burst, int leaseSize,
+                            ObjectProvider<RatePermitLedger> ledgerProvider, MeterRegistry meterRegistry,
+                            LongSupplier nanoClock) {
+        this.nanoClock = nanoClock;
+        this.tokensPerNano = requestsPerMinute / (double) TimeUnit.MINUTES.toNanos(1);
+        this.burst = burst;
+        this.leaseSize = leaseSize;
+        this.ledger = ledgerProvider.getIfAvailable();
+        this.tokens = burst;
+        this.lastRefillNanos = nanoClock.getAsLong();
+        this.nextLeaseAttemptNanos = lastRefillNanos;
+
+        for (RequestPriority priority : RequestPriority.values()) {
+            Queue<Waiter> queue = new ArrayDeque<>();
+            queues.put(priority, queue);
+            currentWeights.put(priority, 0);
+            String tag = priority.name().toLowerCase();
+            Gauge.builder("discogs.scheduler.queue.depth", this, scheduler -> scheduler.queueDepth(priority))
+                    .tag("priority", tag)
+                    .register(meterRegistry);
+            waitTimers.put(priority, Timer.builder("discogs.scheduler.wait")
+                    .tag("priority", tag)
+                    .register(meterRegistry));
+        }
+    }
+
+    /**
+     * Blocks until the caller may issue one request to Discogs.
+     */
+    public void acquire(RequestPriority priority) {
+        Waiter waiter = new Waiter(nanoClock.getAsLong());
+        lock.lock();
+        try {
+            queues.get(priority).add(waiter);
+            while (!waiter.granted) {
+                dispatch();
+                if (waiter.granted) {
+                    break;
+                }
+                if (leaseDue()) {
+                    renewLease();
+                    continue;
+                }
+                dispatched.awaitNanos(nanosUntilNextPermit());
+            }
+        } catch (InterruptedException ex) {
+            queues.get(priority).remove(waiter);
+            Thread.currentThread().interrupt();
+            throw new ExternalApiException("Interrupted while waiting for Discogs rate budget", ex);
+        } catch (RuntimeException ex) {
+            queues.get(priority).remove(waiter);
+            throw ex;
+        } finally {
+            lock.unlock();
+        }
+        waitTimers.get(priority).record(nanoClock.getAsLong() - waiter.enqueuedAtNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * True when a request could be issued right now without delaying any waiting caller.
+     */
+    public boolean hasSpareCapacity() {
+        lock.lock();
+        try {
+            refill();
+            //permits leased for an earlier window do not count
+            return tokens >= 1 && hasLeasedPermit() && queues.values().stream().allMatch(Queue::isEmpty);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int queueDepth(RequestPriority priority) {
+        lock.lock();
+        try {
+            return queues.get(priority).size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void dispatch() {
+        refill();
+        boolean grantedAny = false;
+        while (tokens >= 1 && hasWaiters() && hasLeasedPermit()) {
+            RequestPriority next = nextPriority();
+            queues.get(next).poll().granted = true;
+            tokens -= 1;
+            if (ledger != null) {
+                leasedPermits--;
+            }
+            grantedAny = true;
+        }
+        if (grantedAny) {
+            dispatched.signalAll();
+        }
+    }
+
+    //smooth weighted round robin over the classes that currently have waiters
+    private RequestPriority nextPriority() {
+        RequestPriority selected = null;
+        int totalWeight = 0;
+        for (RequestPriority priority : RequestPriority.values()) {
+            if (queues.get(priority).isEmpty()) {
+                continue;
+            }
+            int weight = currentWeights.get(priority) + priority.getWeight();
+            currentWeights.put(priority, weight);
+            totalWeight += priority.getWeight();
+            if (selected == null || weight > currentWeights.get(selected)) {
+                selected = priority;
+            }
+        }
+        if (selected != null) {
+            currentWeights.put(selected, currentWeights.get(selected) - totalWeight);
+        }
+        return selected;
+    }
+
+    private void refill() {
+        long now = nanoClock.getAsLong();
+        tokens = Math.min(burst, tokens + (now - lastRefillNanos) * tokensPerNano);
+        lastRefillNanos = now;
+    }
+
+    private boolean hasWaiters() {
+        return queues.values().stream().anyMatch(queue -> !queue.isEmpty());
+    }
+
+    //permits leased in a previous window are dropped, the shared ledger has already moved on
+    private boolean hasLeasedPermit() {
+        if (ledger == null) {
+            return true;
+        }
+        if (leasedWindow != ledger.currentWindow()) {
+            leasedPermits = 0;
+        }
+        return leasedPermits >= 1;
+    }
+
+    private boolean leaseDue() {
+        return ledger != null && !leaseInFlight && !hasLeasedPermit() && tokens >= 1
+                && nanoClock.getAsLong() - nextLeaseAttemptNanos >= 0;
+    }
+
+    //called with the lock held; it is released for the ledger call and the other callers wait for the result
+    private void renewLease() {
+        leaseInFlight = true;
+        RatePermitLedger.Lease lease = null;
+        lock.unlock();
+        try {
+            lease = ledger.lease(leaseSize);
+        } finally {
+            lock.lock();
+            leaseInFlight = false;
+            if (lease != null) {
+                leasedWindow = lease.getWindow();
+                leasedPermits = lease.getPermits();
+                if (leasedPermits < 1) {
+                    nextLeaseAttemptNanos = nanoClock.getAsLong()
+                            + TimeUnit.MILLISECONDS.toNanos(ledger.millisUntilNextWindow());
+                }
+            }
+            dispatched.signalAll();
+        }
+    }
+
+    private long nanosUntilNextPermit() {
+        long untilToken = tokens >= 1 ? 0L : (long) Math.ceil((1 - tokens) / tokensPerNano);
+        long untilLease = 0L;
+        if (ledger != null && leasedPermits < 1) {
+            //a caller renewing the lease signals when it is back
+            untilLease = leaseInFlight ? LEASE_WAIT_NANOS : nextLeaseAttemptNanos - nanoClock.getAsLong();
+        }
+        return Math.max(1L, Math.max(untilToken, untilLease));
+    }
+
+    private static final class Waiter {
+        private final long enqueuedAtNanos;
+        private boolean granted;
+
+        private Waiter(long enqueuedAtNanos) {
+            this.enqueuedAtNanos = enqueuedAtNanos;
+        }
+    }
+}
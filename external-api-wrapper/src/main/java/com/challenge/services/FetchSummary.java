@@ -0,0 +1,68 @@
+package com.challenge.services;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counts what fetching a discography took while passing the progress on, so the fetch is logged as one summary
+ * event instead of a line per page.
+ */
+final class FetchSummary implements IngestionProgressListener {
+
+    private final IngestionProgressListener delegate;
+    private final long startNanos = System.nanoTime();
+
+    private final AtomicInteger pages = new AtomicInteger();
+    private final AtomicLong releases = new AtomicLong();
+    private final AtomicInteger retries = new AtomicInteger();
+    private final AtomicLong bytes = new AtomicLong();
+
+    FetchSummary(IngestionProgressListener delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public void onTotalPages(int totalPages) {
+        delegate.onTotalPages(totalPages);
+    }
+
+    @Override
+    public void onPageFetched(int releases) {
+        pages.incrementAndGet();
+        this.releases.addAndGet(releases);
+        delegate.onPageFetched(releases);
+    }
+
+    @Override
+    public void onRateLimitWait(long backoffMillis) {
+        retries.incrementAndGet();
+        delegate.onRateLimitWait(backoffMillis);
+    }
+
+    //the body length in characters, which matches its size in bytes for the ASCII JSON Discogs mostly returns
+    @Override
+    public void onBodyReceived(long length) {
+        bytes.addAndGet(length);
+        delegate.onBodyReceived(length);
+    }
+
+    int getPages() {
+        return pages.get();
+    }
+
+    long getReleases() {
+        return releases.get();
+    }
+
+    int getRetries() {
+        return retries.get();
+    }
+
+    long getBytes() {
+        return bytes.get();
+    }
+
+    long getElapsedMillis() {
+        return (System.nanoTime() - startNanos) / 1_000_000;
+    }
+}
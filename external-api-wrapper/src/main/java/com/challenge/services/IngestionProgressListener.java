@@ -0,0 +1,23 @@
+package com.challenge.services;
+
+/**
+ * Receives progress notifications while a discography is downloaded. Pages are fetched in parallel,
+ * so implementations must be thread-safe.
+ */
+public interface IngestionProgressListener {
+
+    IngestionProgressListener NOOP = new IngestionProgressListener() {
+    };
+
+    default void onTotalPages(int totalPages) {
+    }
+
+    default void onPageFetched(int releases) {
+    }
+
+    default void onRateLimitWait(long backoffMillis) {
+    }
+
+    default void onBodyReceived(long length) {
+    }
+}
@@ -0,0 +1,192 @@
+package com.challenge.services;
+
+import com.challenge.exceptions.ExternalApiException;
+import com.challenge.exceptions.TooManyRequestsException;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.OptionalLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Global budget for the release data held in memory by in-flight ingestions. The budget is a fraction of the
+ * smaller of the container memory limit (read from the cgroup) and the maximum heap. Callers reserve the
+ * estimated size of what they are about to buffer and wait, in arrival order, while the budget is exhausted.
+ */
+@Component
+public class MemoryBudgetManager {
+
+    private static final Logger logger = LoggerFactory.getLogger(MemoryBudgetManager.class);
+
+    private static final List<Path> CGROUP_LIMIT_FILES = List.of(
+            Path.of("/sys/fs/cgroup/memory.max"),
+            Path.of("/sys/fs/cgroup/memory/memory.limit_in_bytes"));
+
+    //cgroup v1 reports "no limit" as a huge page-aligned number
+    private static final long UNLIMITED_THRESHOLD = Long.MAX_VALUE / 2;
+
+    private final long budgetBytes;
+    private final long bytesPerRelease;
+    private final Duration maxWait;
+
+    private final ReentrantLock lock = new ReentrantLock(true);
+    private final Condition released = lock.newCondition();
+    //callers in arrival order, only the first one may take bytes so small reservations cannot starve a large one
+    private final Deque<Object> waiting = new ArrayDeque<>();
+
+    private long reservedBytes;
+
+    public MemoryBudgetManager(@Value("${discogs.memory.budget-bytes:0}") long configuredBudgetBytes,
+                               @Value("${discogs.memory.budget-fraction:0.3}") double budgetFraction,
+                               @Value("${discogs.memory.bytes-per-release:4096}") long bytesPerRelease,
+                               @Value("${discogs.memory.max-wait:PT1M}") Duration maxWait,
+                               MeterRegistry meterRegistry) {
+        this.bytesPerRelease = bytesPerRelease;
+        this.maxWait = maxWait;
+        this.budgetBytes = configuredBudgetBytes > 0 ? configuredBudgetBytes : derivedBudget(budgetFraction);
+        logger.info("Ingestion memory budget: {} bytes", budgetBytes);
+
+        Gauge.builder("discogs.memory.budget", this, MemoryBudgetManager::getBudgetBytes)
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder("discogs.memory.reserved", this, MemoryBudgetManager::getReservedBytes)
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder("discogs.memory.waiting", this, MemoryBudgetManager::getWaitingCount)
+                .register(meterRegistry);
+    }
+
+    public long estimateBytes(long releases) {
+        return Math.max(0, releases) * bytesPerRelease;
+    }
+
+    /**
+     * Blocks until the bytes fit into the budget. Reservations larger than the whole budget are capped to it,
+     * so they wait until nothing else is reserved.
+     *
+     * @throws TooManyRequestsException when the budget stays exhausted for longer than the configured wait
+     */
+    public Reservation reserve(long bytes) {
+        long granted = Math.min(Math.max(0, bytes), budgetBytes);
+        long remainingNanos = maxWait.toNanos();
+        Object ticket = new Object();
+        lock.lock();
+        try {
+            waiting.addLast(ticket);
+            try {
+                while (waiting.peekFirst() != ticket || reservedBytes + granted > budgetBytes) {
+                    if (remainingNanos <= 0) {
+                        throw new TooManyRequestsException("Ingestion memory budget is exhausted, try again later");
+                    }
+                    remainingNanos = released.awaitNanos(remainingNanos);
+                }
+                reservedBytes += granted;
+            } finally {
+                waiting.remove(ticket);
+                //the next caller in line may fit as well
+                released.signalAll();
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new ExternalApiException("Interrupted while waiting for ingestion memory budget", ex);
+        } finally {
+            lock.unlock();
+        }
+        return new Reservation(granted);
+    }
+
+    public long getBudgetBytes() {
+        return budgetBytes;
+    }
+
+    public long getReservedBytes() {
+        lock.lock();
+        try {
+            return reservedBytes;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getWaitingCount() {
+        lock.lock();
+        try {
+            return waiting.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void release(long bytes) {
+        lock.lock();
+        try {
+            reservedBytes -= bytes;
+            released.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static long derivedBudget(double budgetFraction) {
+        long maxHeap = Runtime.getRuntime().maxMemory();
+        long limit = containerMemoryLimit(CGROUP_LIMIT_FILES).stream().map(containerLimit -> Math.min(containerLimit, maxHeap))
+                .findFirst().orElse(maxHeap);
+        return (long) (limit * budgetFraction);
+    }
+
+    //the first readable file wins, cgroup v2 before v1
+    static OptionalLong containerMemoryLimit(List<Path> limitFiles) {
+        for (Path file : limitFiles) {
+            try {
+                if (!Files.isReadable(file)) {
+                    continue;
+                }
+                String value = Files.readString(file).trim();
+                if (value.equals("max")) {
+                    return OptionalLong.empty();
+                }
+                long limit = Long.parseLong(value);
+                return limit < UNLIMITED_THRESHOLD ? OptionalLong.of(limit) : OptionalLong.empty();
+            } catch (IOException | NumberFormatException ex) {
+                logger.warn("Could not read container memory limit from {}: {}", file, ex.getMessage());
+            }
+        }
+        return OptionalLong.empty();
+    }
+
+    /**
+     * Reserved bytes, given back on close. Closing more than once has no further effect.
+     */
+    public final class Reservation implements AutoCloseable {
+        private final long bytes;
+        private boolean closed;
+
+        private Reservation(long bytes) {
+            this.bytes = bytes;
+        }
+
+        public long getBytes() {
+            return bytes;
+        }
+
+        @Override
+        public synchronized void close() {
+            if (!closed) {
+                closed = true;
+                release(bytes);
+            }
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.challenge.services;
+
+/**
+ * Shared source of Discogs rate budget for deployments where several instances use the same token.
+ * Permits belong to a fixed time window and are leased in chunks, so only one call in a chunk pays
+ * for the coordination.
+ */
+public interface RatePermitLedger {
+
+    /**
+     * Tries to reserve up to {@code permits} permits of the current window.
+     *
+     * @return the lease actually granted, with fewer permits than asked for when the window is nearly
+     *         used up, and zero permits only when it is exhausted
+     */
+    Lease lease(int permits);
+
+    /**
+     * @return the window a lease taken now would belong to
+     */
+    long currentWindow();
+
+    long millisUntilNextWindow();
+
+    final class Lease {
+        private final long window;
+        private final int permits;
+
+        public Lease(long window, int permits) {
+            this.window = window;
+            this.permits = permits;
+        }
+
+        public long getWindow() {
+            return window;
+        }
+
+        public int getPermits() {
+            return permits;
+        }
+    }
+}
@@ -0,0 +1,183 @@
+package com.challenge.services;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Raw Discogs response bodies keyed by URL without the token, gzip-compressed and bounded by their total
+ * compressed size. An entry is served as it is until its endpoint TTL runs out. After that, entries that came
+ * with an ETag or Last-Modified are kept for revalidation with a conditional request; the others expire.
+ */
+@Component
+public class RawResponseCache {
+
+    public enum Endpoint {
+        SEARCH, ARTIST, RELEASES
+    }
+
+    private static final Pattern TOKEN_PARAMETER = Pattern.compile("([?&])token=[^&]*(&?)");
+
+    private final Map<Endpoint, Duration> ttls = new EnumMap<>(Endpoint.class);
+    private final Duration revalidationWindow;
+    private final Cache<String, CachedResponse> responses;
+
+    private final Counter hits;
+    private final Counter revalidated;
+    private final Counter misses;
+
+    public RawResponseCache(@Value("${discogs.api.response-cache.max-bytes:33554432}") long maxBytes,
+                            @Value("${discogs.api.response-cache.search-ttl:PT5M}") Duration searchTtl,
+                            @Value("${discogs.api.response-cache.artist-ttl:PT1H}") Duration artistTtl,
+                            @Value("${discogs.api.response-cache.releases-ttl:PT15M}") Duration releasesTtl,
+                            @Value("${discogs.api.response-cache.revalidation-window:PT24H}") Duration revalidationWindow,
+                            MeterRegistry meterRegistry) {
+        ttls.put(Endpoint.SEARCH, searchTtl);
+        ttls.put(Endpoint.ARTIST, artistTtl);
+        ttls.put(Endpoint.RELEASES, releasesTtl);
+        this.revalidationWindow = revalidationWindow;
+        this.responses = Caffeine.newBuilder()
+                .maximumWeight(maxBytes)
+                .weigher((String key, CachedResponse response) -> key.length() + response.compressedBody.length)
+                .expireAfter(new RetentionExpiry())
+                //evictions run on the writing thread, so the byte bound holds as soon as a put returns
+                .executor(Runnable::run)
+                .build();
+
+        this.hits = Counter.builder("discogs.client.response-cache").tag("result", "hit").register(meterRegistry);
+        this.revalidated = Counter.builder("discogs.client.response-cache").tag("result", "revalidated")
+                .register(meterRegistry);
+        this.misses = Counter.builder("discogs.client.response-cache").tag("result", "miss").register(meterRegistry);
+        Gauge.builder("discogs.client.response-cache.size", responses,
+                        cache -> cache.policy().eviction().map(eviction -> eviction.weightedSize().orElse(0)).orElse(0L))
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    /**
+     * The cache key of a request URL, which is the URL without its token parameter.
+     */
+    public static String keyOf(String url) {
+        //a leading token keeps the '?' for the parameters after it, any other token takes its '&' with it
+        return TOKEN_PARAMETER.matcher(url).replaceAll(token -> token.group(1).equals("?")
+                ? (token.group(2).isEmpty() ? "" : "?")
+                : token.group(2));
+    }
+
+    /**
+     * Returns the cached response, fresh or due for revalidation, or null.
+     */
+    public CachedResponse get(String key) {
+        return responses.getIfPresent(key);
+    }
+
+    public void put(String key, Endpoint endpoint, String body, String etag, String lastModified) {
+        responses.put(key, new CachedResponse(compress(body), etag, lastModified,
+                System.nanoTime() + ttls.get(endpoint).toNanos()));
+    }
+
+    /**
+     * Records a 304 for a cached response, which makes it fresh again for another TTL.
+     */
+    public void markRevalidated(String key, Endpoint endpoint, CachedResponse response) {
+        revalidated.increment();
+        responses.put(key, new CachedResponse(response.compressedBody, response.etag, response.lastModified,
+                System.nanoTime() + ttls.get(endpoint).toNanos()));
+    }
+
+    public void recordHit() {
+        hits.increment();
+    }
+
+    public void recordMiss() {
+        misses.increment();
+    }
+
+    private static byte[] compress(String body) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(bytes)) {
+            gzip.write(body.getBytes(StandardCharsets.UTF_8));
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static String decompress(byte[] compressedBody) {
+        try (GZIPInputStream gzip = new GZIPInputStream(new ByteArrayInputStream(compressedBody))) {
+            return new String(gzip.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    public static final class CachedResponse {
+        private final byte[] compressedBody;
+        private final String etag;
+        private final String lastModified;
+        private final long freshUntilNanos;
+
+        private CachedResponse(byte[] compressedBody, String etag, String lastModified, long freshUntilNanos) {
+            this.compressedBody = compressedBody;
+            this.etag = etag;
+            this.lastModified = lastModified;
+            this.freshUntilNanos = freshUntilNanos;
+        }
+
+        public boolean isFresh() {
+            return System.nanoTime() - freshUntilNanos < 0;
+        }
+
+        public boolean hasValidators() {
+            return etag != null || lastModified != null;
+        }
+
+        public String getBody() {
+            return decompress(compressedBody);
+        }
+
+        public String getEtag() {
+            return etag;
+        }
+
+        public String getLastModified() {
+            return lastModified;
+        }
+    }
+
+    //stale entries are only worth keeping when they can be revalidated
+    private final class RetentionExpiry implements Expiry<String, CachedResponse> {
+        @Override
+        public long expireAfterCreate(String key, CachedResponse response, long currentTime) {
+            long freshNanos = Math.max(0, response.freshUntilNanos - System.nanoTime());
+            return response.hasValidators() ? freshNanos + revalidationWindow.toNanos() : freshNanos;
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, CachedResponse response, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, response, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, CachedResponse response, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
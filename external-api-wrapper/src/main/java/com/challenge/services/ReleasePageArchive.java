@@ -0,0 +1,16 @@
+package com.challenge.services;
+
+/**
+ * Optional store of the raw release pages fetched from Discogs, so stored discographies can be rebuilt
+ * with new mapping rules without fetching them again. Storing must never fail the ingestion that fetched the page.
+ */
+public interface ReleasePageArchive {
+
+    void store(String artistId, int page, int perPage, String body);
+
+    /**
+     * Called once a fetch of every page completed. Drops the archived pages of the artist with another page size
+     * or past the last page, so the archive only holds the current discography.
+     */
+    void retainOnly(String artistId, int perPage, int totalPages);
+}
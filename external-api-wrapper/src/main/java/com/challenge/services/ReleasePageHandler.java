@@ -0,0 +1,13 @@
+package com.challenge.services;
+
+import com.challenge.model.DiscogsAlbumResponse;
+
+/**
+ * Receives the release pages of a discography as they arrive. Pages are fetched in parallel and in no
+ * particular order, so implementations must be thread-safe.
+ */
+@FunctionalInterface
+public interface ReleasePageHandler {
+
+    void onPage(int page, int totalPages, DiscogsAlbumResponse response);
+}
@@ -0,0 +1,21 @@
+package com.challenge.services;
+
+/**
+ * Priority classes of the calls made to Discogs. The weight is the share of the rate budget a class gets
+ * when several classes are waiting at the same time.
+ */
+public enum RequestPriority {
+    INTERACTIVE_SEARCH(6),
+    INTERACTIVE_DISCOGRAPHY(3),
+    BACKGROUND(1);
+
+    private final int weight;
+
+    RequestPriority(int weight) {
+        this.weight = weight;
+    }
+
+    public int getWeight() {
+        return weight;
+    }
+}
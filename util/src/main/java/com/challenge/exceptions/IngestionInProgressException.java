@@ -0,0 +1,17 @@
+package com.challenge.exceptions;
+
+public class IngestionInProgressException extends RuntimeException {
+    public IngestionInProgressException() {}
+
+    public IngestionInProgressException(String message) {
+        super(message);
+    }
+
+    public IngestionInProgressException(String message, Throwable cause) {
+        super(message, cause);
+    }
+
+    public IngestionInProgressException(Throwable cause) {
+        super(cause);
+    }
+}
@@ -0,0 +1,40 @@
+package com.challenge.http;
+
+import com.challenge.logging.CorrelationId;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+import reactor.util.context.Context;
+
+import java.util.UUID;
+import java.util.regex.Pattern;
+
+/**
+ * Gives every request a correlation id, taken from the X-Correlation-Id header when the caller sends a usable one,
+ * and returns it in the response. The id is put in the Reactor context, from where
+ * {@link com.challenge.logging.CorrelationIdThreadLocalAccessor} puts it in the MDC.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class CorrelationIdWebFilter implements WebFilter {
+
+    //ids are written to every log line, anything else is replaced rather than logged
+    private static final Pattern VALID_ID = Pattern.compile("[A-Za-z0-9._-]{1,64}");
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        String requested = exchange.getRequest().getHeaders().getFirst(CorrelationId.HEADER);
+        String correlationId = requested != null && VALID_ID.matcher(requested).matches()
+                ? requested
+                : UUID.randomUUID().toString();
+        exchange.getResponse().getHeaders().set(CorrelationId.HEADER, correlationId);
+
+        //with automatic context propagation the id is restored into the MDC on every thread that handles the
+        //request, not only while the chain is subscribed
+        return chain.filter(exchange).contextWrite(Context.of(CorrelationId.MDC_KEY, correlationId));
+    }
+}
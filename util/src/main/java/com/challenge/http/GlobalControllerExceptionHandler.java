@@ -1,6 +1,7 @@
 package com.challenge.http;
 
 import com.challenge.exceptions.*;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.server.reactive.ServerHttpRequest;
 import org.springframework.web.bind.annotation.*;
@@ -49,6 +50,24 @@ public class GlobalControllerExceptionHandler {
         return Mono.just(ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).body(errorInfo));
     }
 
+    @ExceptionHandler(IngestionInProgressException.class)
+    public Mono<ResponseEntity<HttpErrorInfo>> handleIngestionInProgressException(
+            IngestionInProgressException ex, ServerWebExchange exchange) {
+
+        HttpErrorInfo errorInfo = createHttpErrorInfo(HttpStatus.SERVICE_UNAVAILABLE, exchange.getRequest().getPath().toString(), ex);
+        return Mono.just(ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(errorInfo));
+    }
+
+    @ExceptionHandler(AdmissionRejectedException.class)
+    public Mono<ResponseEntity<HttpErrorInfo>> handleAdmissionRejectedException(
+            AdmissionRejectedException ex, ServerWebExchange exchange) {
+
+        HttpErrorInfo errorInfo = createHttpErrorInfo(HttpStatus.TOO_MANY_REQUESTS, exchange.getRequest().getPath().toString(), ex);
+        return Mono.just(ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+                .body(errorInfo));
+    }
+
     private HttpErrorInfo createHttpErrorInfo(HttpStatus httpStatus, String path, Exception ex) {
         return new HttpErrorInfo(
                 path,
@@ -0,0 +1,31 @@
+package com.challenge.logging;
+
+import io.micrometer.context.ThreadLocalAccessor;
+import org.slf4j.MDC;
+
+/**
+ * Restores the correlation id from the Reactor context into the MDC of whichever thread handles a signal.
+ * Registered through META-INF/services, and only used once automatic context propagation is enabled.
+ */
+public class CorrelationIdThreadLocalAccessor implements ThreadLocalAccessor<String> {
+
+    @Override
+    public Object key() {
+        return CorrelationId.MDC_KEY;
+    }
+
+    @Override
+    public String getValue() {
+        return MDC.get(CorrelationId.MDC_KEY);
+    }
+
+    @Override
+    public void setValue(String value) {
+        MDC.put(CorrelationId.MDC_KEY, value);
+    }
+
+    @Override
+    public void setValue() {
+        MDC.remove(CorrelationId.MDC_KEY);
+    }
+}
@@ -0,0 +1,19 @@
+package com.challenge.logging;
+
+import org.slf4j.Marker;
+import org.slf4j.MarkerFactory;
+
+/**
+ * Markers understood by the logging configuration.
+ */
+public final class LogMarkers {
+
+    /**
+     * Exempts an event from {@link RateLimitingTurboFilter}, for messages logged once per unit of work whose
+     * format never changes, like a summary per fetch.
+     */
+    public static final Marker UNTHROTTLED = MarkerFactory.getMarker("UNTHROTTLED");
+
+    private LogMarkers() {
+    }
+}
@@ -0,0 +1,98 @@
+package com.challenge.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.spi.FilterReply;
+import org.slf4j.LoggerFactory;
+import org.slf4j.Marker;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+/**
+ * Lets through at most {@code maxEvents} INFO and lower events per logger and message pattern in each period and
+ * drops the rest, so a message repeated for every page or retry cannot flood the appenders. WARN and ERROR events
+ * are never dropped, and neither are events carrying the {@link LogMarkers#UNTHROTTLED} marker. The number of
+ * dropped events is logged once the next period lets the message through again.
+ */
+public class RateLimitingTurboFilter extends TurboFilter {
+
+    private static final String REPORTING_LOGGER = RateLimitingTurboFilter.class.getName();
+
+    private int maxEvents = 20;
+    private long periodMillis = 10_000;
+    private int maxPatterns = 1000;
+
+    private final Map<String, Window> windows = new ConcurrentHashMap<>();
+    private final LongSupplier clock;
+
+    public RateLimitingTurboFilter() {
+        this(System::currentTimeMillis);
+    }
+
+    RateLimitingTurboFilter(LongSupplier clock) {
+        this.clock = clock;
+    }
+
+    public void setMaxEvents(int maxEvents) {
+        this.maxEvents = maxEvents;
+    }
+
+    public void setPeriodMillis(long periodMillis) {
+        this.periodMillis = periodMillis;
+    }
+
+    public void setMaxPatterns(int maxPatterns) {
+        this.maxPatterns = maxPatterns;
+    }
+
+    @Override
+    public FilterReply decide(Marker marker, Logger logger, Level level, String format, Object[] params, Throwable t) {
+        //turbo filters run before the level check, disabled events are left to it so they do not use up the limit
+        if (!isStarted() || format == null || !level.isGreaterOrEqual(logger.getEffectiveLevel())
+                || level.isGreaterOrEqual(Level.WARN)
+                || marker != null && marker.contains(LogMarkers.UNTHROTTLED)) {
+            return FilterReply.NEUTRAL;
+        }
+
+        if (windows.size() >= maxPatterns) {
+            windows.clear();
+        }
+        long now = clock.getAsLong();
+        Window window = windows.computeIfAbsent(logger.getName() + '|' + format, key -> new Window(now));
+
+        long dropped;
+        synchronized (window) {
+            if (now - window.startMillis >= periodMillis) {
+                dropped = window.dropped;
+                window.startMillis = now;
+                window.events = 0;
+                window.dropped = 0;
+            } else {
+                dropped = 0;
+            }
+            if (++window.events > maxEvents) {
+                window.dropped++;
+                return FilterReply.DENY;
+            }
+        }
+
+        if (dropped > 0) {
+            LoggerFactory.getLogger(REPORTING_LOGGER).warn("Dropped {} repetitions of \"{}\" from {}",
+                    dropped, format, logger.getName());
+        }
+        return FilterReply.NEUTRAL;
+    }
+
+    private static final class Window {
+        private long startMillis;
+        private int events;
+        private long dropped;
+
+        private Window(long startMillis) {
+            this.startMillis = startMillis;
+        }
+    }
+}